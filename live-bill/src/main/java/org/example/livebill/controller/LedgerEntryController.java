@@ -0,0 +1,31 @@
+package org.example.livebill.controller;
+
+import org.example.livebill.dto.LedgerEntry;
+import org.example.livebill.dto.LedgerEntryRequest;
+import org.example.livebill.service.LedgerService;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/streamers/{streamerId}/ledger-entries")
+public class LedgerEntryController {
+
+  private final LedgerService ledgerService;
+
+  public LedgerEntryController(LedgerService ledgerService) {
+    this.ledgerService = ledgerService;
+  }
+
+  /** Records a ledger line; clients retry safely by sending an {@code Idempotency-Key} header. */
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public LedgerEntry record(
+      @PathVariable Long streamerId, @RequestBody LedgerEntryRequest request) {
+    return ledgerService.record(streamerId, request);
+  }
+}
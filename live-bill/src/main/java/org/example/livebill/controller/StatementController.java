@@ -0,0 +1,144 @@
+package org.example.livebill.controller;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.example.livebill.service.StatementCache;
+import org.example.livebill.service.StatementService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/api/streamers/{streamerId}/statements")
+public class StatementController {
+
+  private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+
+  private final StatementService statementService;
+  private final StatementCache statementCache;
+
+  public StatementController(StatementService statementService, StatementCache statementCache) {
+    this.statementService = statementService;
+    this.statementCache = statementCache;
+  }
+
+  /**
+   * Downloads a monthly statement as CSV.
+   *
+   * <p>Closed months that were precomputed are served from disk and do not touch the database.
+   * Clients that accept gzip get the stored file as is, gzip-encoded and with Range support for
+   * resumed downloads; other clients get it decompressed on the fly, without Range support.
+   * Everything else, including the current month, is streamed from the database (gzipped on the
+   * fly when accepted, never with Range support) and counts against
+   * {@code live-bill.statements.max-concurrent-exports}; when all slots are taken the request is
+   * rejected with 503 and {@code Retry-After}.
+   */
+  @GetMapping("/{month}")
+  public ResponseEntity<?> download(
+      @PathVariable Long streamerId,
+      @PathVariable YearMonth month,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    boolean gzip = acceptsGzip(acceptEncoding);
+    ContentDisposition disposition = ContentDisposition.attachment()
+        .filename("statement-" + streamerId + "-" + month + ".csv")
+        .build();
+
+    Optional<Path> cached = statementCache.find(streamerId, month);
+    if (cached.isPresent() && gzip) {
+      FileSystemResource file = new FileSystemResource(cached.get());
+      return ResponseEntity.ok()
+          .contentType(TEXT_CSV)
+          .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+          .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+          .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+          .lastModified(file.getFile().lastModified())
+          .body(file);
+    }
+
+    StreamingResponseBody body;
+    if (cached.isPresent()) {
+      Path file = cached.get();
+      body = out -> {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 64 * 1024)) {
+          in.transferTo(out);
+        }
+      };
+    } else if (statementService.tryAcquireExport()) {
+      body = out -> {
+        try {
+          if (gzip) {
+            GZIPOutputStream gz = new GZIPOutputStream(out, 64 * 1024);
+            statementService.writeCsv(streamerId, month, gz);
+            gz.finish();
+          } else {
+            statementService.writeCsv(streamerId, month, out);
+          }
+        } finally {
+          statementService.releaseExport();
+        }
+      };
+    } else {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+          .header(HttpHeaders.RETRY_AFTER, "30")
+          .build();
+    }
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .contentType(TEXT_CSV)
+        .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+        .header(HttpHeaders.ACCEPT_RANGES, "none");
+    if (gzip && cached.isEmpty()) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(body);
+  }
+
+  /**
+   * Whether {@code Accept-Encoding} allows gzip. An explicit {@code gzip} entry wins over
+   * {@code *}, and a q-value of 0 means "not acceptable".
+   */
+  static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    Double gzipQuality = null;
+    Double anyQuality = null;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      String name = parts[0].trim();
+      double quality = 1;
+      for (int i = 1; i < parts.length; i++) {
+        String parameter = parts[i].trim();
+        if (parameter.startsWith("q=")) {
+          try {
+            quality = Double.parseDouble(parameter.substring(2));
+          } catch (NumberFormatException e) {
+            quality = 0;
+          }
+        }
+      }
+      if (name.equalsIgnoreCase("gzip")) {
+        gzipQuality = quality;
+      } else if (name.equals("*")) {
+        anyQuality = quality;
+      }
+    }
+    return gzipQuality != null ? gzipQuality > 0 : anyQuality != null && anyQuality > 0;
+  }
+
+}
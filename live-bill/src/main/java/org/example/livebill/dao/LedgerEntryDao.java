@@ -0,0 +1,104 @@
+package org.example.livebill.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.example.livebill.dto.LedgerEntry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class LedgerEntryDao {
+
+  private static final String SELECT_MONTH =
+      "SELECT id, created_at, entry_type, room_id, reference_id, coins FROM ledger_entries"
+          + " WHERE streamer_id = ? AND created_at >= ? AND created_at < ?"
+          + " ORDER BY created_at, id";
+
+  private static final String SELECT_MONTH_VERSIONS =
+      "SELECT streamer_id, COUNT(*), MAX(id) FROM ledger_entries"
+          + " WHERE created_at >= ? AND created_at < ? GROUP BY streamer_id";
+
+  private static final String INSERT =
+      "INSERT INTO ledger_entries"
+          + " (streamer_id, room_id, entry_type, reference_id, coins, created_at)"
+          + " VALUES (?, ?, ?, ?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public LedgerEntryDao(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Hands every ledger line of the month to {@code handler} in order without materializing the
+   * result set; Connector/J only streams row by row with a forward-only, read-only statement and a
+   * fetch size of {@link Integer#MIN_VALUE}.
+   */
+  public void streamMonth(long streamerId, YearMonth month, RowCallbackHandler handler) {
+    jdbcTemplate.query(
+        con -> {
+          PreparedStatement ps = con.prepareStatement(
+              SELECT_MONTH, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+          ps.setFetchSize(Integer.MIN_VALUE);
+          ps.setLong(1, streamerId);
+          ps.setObject(2, monthStart(month));
+          ps.setObject(3, monthStart(month.plusMonths(1)));
+          return ps;
+        },
+        handler);
+  }
+
+  public LedgerEntry insert(
+      long streamerId, Long roomId, String entryType, String referenceId, long coins,
+      LocalDateTime createdAt) {
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    jdbcTemplate.update(
+        con -> {
+          PreparedStatement ps = con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);
+          ps.setLong(1, streamerId);
+          if (roomId == null) {
+            ps.setNull(2, Types.BIGINT);
+          } else {
+            ps.setLong(2, roomId);
+          }
+          ps.setString(3, entryType);
+          ps.setString(4, referenceId);
+          ps.setLong(5, coins);
+          ps.setObject(6, createdAt);
+          return ps;
+        },
+        keyHolder);
+    return new LedgerEntry(
+        keyHolder.getKey().longValue(), streamerId, roomId, entryType, referenceId, coins,
+        createdAt);
+  }
+
+  /**
+   * For every streamer with ledger lines in the month, a version of those lines
+   * ({@code "<count>-<max id>"}). The ledger is append-only, so the version changes whenever a
+   * line lands in the month, including late or backdated ones.
+   */
+  public Map<Long, String> findMonthVersions(YearMonth month) {
+    Map<Long, String> versions = new HashMap<>();
+    jdbcTemplate.query(SELECT_MONTH_VERSIONS,
+        rs -> {
+          versions.put(rs.getLong(1), rs.getLong(2) + "-" + rs.getLong(3));
+        },
+        monthStart(month), monthStart(month.plusMonths(1)));
+    return versions;
+  }
+
+  private static LocalDateTime monthStart(YearMonth month) {
+    return month.atDay(1).atStartOfDay();
+  }
+}
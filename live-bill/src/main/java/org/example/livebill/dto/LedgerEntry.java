@@ -0,0 +1,14 @@
+package org.example.livebill.dto;
+
+import java.time.LocalDateTime;
+
+public record LedgerEntry(
+    long id,
+    long streamerId,
+    Long roomId,
+    String entryType,
+    String referenceId,
+    long coins,
+    LocalDateTime createdAt
+) {
+}
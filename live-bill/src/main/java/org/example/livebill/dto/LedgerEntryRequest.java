@@ -0,0 +1,9 @@
+package org.example.livebill.dto;
+
+public record LedgerEntryRequest(
+    Long roomId,
+    String entryType,
+    String referenceId,
+    Long coins
+) {
+}
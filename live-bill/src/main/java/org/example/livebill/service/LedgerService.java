@@ -0,0 +1,41 @@
+package org.example.livebill.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import org.example.livebill.dao.LedgerEntryDao;
+import org.example.livebill.dto.LedgerEntry;
+import org.example.livebill.dto.LedgerEntryRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class LedgerService {
+
+  private static final int MAX_ENTRY_TYPE_LENGTH = 32;
+  private static final int MAX_REFERENCE_LENGTH = 64;
+
+  private final LedgerEntryDao ledgerEntryDao;
+
+  public LedgerService(LedgerEntryDao ledgerEntryDao) {
+    this.ledgerEntryDao = ledgerEntryDao;
+  }
+
+  public LedgerEntry record(long streamerId, LedgerEntryRequest request) {
+    if (request.entryType() == null || request.entryType().isBlank() || request.coins() == null) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Entry type and coins are required");
+    }
+    String referenceId = request.referenceId();
+    if (request.entryType().length() > MAX_ENTRY_TYPE_LENGTH
+        || (referenceId != null && referenceId.length() > MAX_REFERENCE_LENGTH)) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Entry type or reference too long");
+    }
+    // ledger_entries.created_at is TIMESTAMP(3) in UTC
+    LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MILLIS);
+    return ledgerEntryDao.insert(
+        streamerId, request.roomId(), request.entryType(), referenceId, request.coins(), now);
+  }
+}
@@ -0,0 +1,138 @@
+package org.example.livebill.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import org.example.livebill.dao.LedgerEntryDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Gzipped CSV statements of closed months, kept on local disk so repeated downloads are plain
+ * file reads and can be served with byte ranges.
+ *
+ * <p>Each file is stored with the version of the month's ledger lines it was built from (see
+ * {@link LedgerEntryDao#findMonthVersions}). The daily refresh rebuilds any cached month whose
+ * version changed, so a late or backdated entry replaces a stale statement within a day.
+ */
+@Service
+public class StatementCache {
+
+  private static final Logger log = LoggerFactory.getLogger(StatementCache.class);
+
+  private final StatementService statementService;
+  private final LedgerEntryDao ledgerEntryDao;
+  private final Path cacheDir;
+
+  public StatementCache(
+      StatementService statementService,
+      LedgerEntryDao ledgerEntryDao,
+      @Value("${live-bill.statements.cache-dir}") Path cacheDir) {
+    this.statementService = statementService;
+    this.ledgerEntryDao = ledgerEntryDao;
+    this.cacheDir = cacheDir;
+  }
+
+  public Optional<Path> find(long streamerId, YearMonth month) {
+    Path file = fileFor(streamerId, month);
+    return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+  }
+
+  @Scheduled(cron = "${live-bill.statements.precompute-cron}", zone = "UTC")
+  public void precomputePreviousMonth() {
+    precompute(YearMonth.now(ZoneOffset.UTC).minusMonths(1));
+  }
+
+  /** Rebuilds the statements of every cached month whose ledger lines changed. */
+  @Scheduled(cron = "${live-bill.statements.refresh-cron}", zone = "UTC")
+  public void refreshCachedMonths() {
+    if (!Files.isDirectory(cacheDir)) {
+      return;
+    }
+    List<YearMonth> months = new ArrayList<>();
+    try (DirectoryStream<Path> dirs = Files.newDirectoryStream(cacheDir, Files::isDirectory)) {
+      for (Path dir : dirs) {
+        try {
+          months.add(YearMonth.parse(dir.getFileName().toString()));
+        } catch (DateTimeParseException e) {
+          // Not a month directory
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Failed to list cached statement months in {}", cacheDir, e);
+      return;
+    }
+    months.stream().filter(statementService::isClosed).forEach(this::precompute);
+  }
+
+  public void precompute(YearMonth month) {
+    if (!statementService.isClosed(month)) {
+      throw new IllegalArgumentException("Month " + month + " is not closed yet");
+    }
+    int written = 0;
+    for (Map.Entry<Long, String> streamer : ledgerEntryDao.findMonthVersions(month).entrySet()) {
+      long streamerId = streamer.getKey();
+      String version = streamer.getValue();
+      if (find(streamerId, month).isPresent()
+          && version.equals(cachedVersion(streamerId, month))) {
+        continue;
+      }
+      try {
+        write(streamerId, month, version);
+        written++;
+      } catch (IOException e) {
+        log.warn("Failed to precompute statement {} for streamer {}", month, streamerId, e);
+      }
+    }
+    log.info("Precomputed {} statements for {}", written, month);
+  }
+
+  private String cachedVersion(long streamerId, YearMonth month) {
+    try {
+      return Files.readString(versionFileFor(streamerId, month));
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private void write(long streamerId, YearMonth month, String version) throws IOException {
+    Path target = fileFor(streamerId, month);
+    Files.createDirectories(target.getParent());
+    Path tmp = Files.createTempFile(target.getParent(), streamerId + "-", ".tmp");
+    try {
+      try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+        statementService.writeCsv(streamerId, month, out);
+      }
+      Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      // Written last: a crash in between leaves the old version and the file is rebuilt again
+      Files.writeString(tmp, version);
+      Files.move(tmp, versionFileFor(streamerId, month),
+          StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  private Path fileFor(long streamerId, YearMonth month) {
+    return cacheDir.resolve(month.toString()).resolve(streamerId + ".csv.gz");
+  }
+
+  private Path versionFileFor(long streamerId, YearMonth month) {
+    return cacheDir.resolve(month.toString()).resolve(streamerId + ".version");
+  }
+}
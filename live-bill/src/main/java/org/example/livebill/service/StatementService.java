@@ -0,0 +1,112 @@
+package org.example.livebill.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Semaphore;
+
+import org.example.livebill.dao.LedgerEntryDao;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class StatementService {
+
+  private static final String CSV_HEADER =
+      "entry_id,created_at,entry_type,room_id,reference_id,coins\n";
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+  private static final DateTimeFormatter CREATED_AT =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
+
+  private final LedgerEntryDao ledgerEntryDao;
+  private final Semaphore exportPermits;
+
+  public StatementService(
+      LedgerEntryDao ledgerEntryDao,
+      @Value("${live-bill.statements.max-concurrent-exports:4}") int maxConcurrentExports) {
+    this.ledgerEntryDao = ledgerEntryDao;
+    this.exportPermits = new Semaphore(maxConcurrentExports);
+  }
+
+  public boolean isClosed(YearMonth month) {
+    return month.isBefore(YearMonth.now(ZoneOffset.UTC));
+  }
+
+  /**
+   * Reserves one of the {@code max-concurrent-exports} slots for streaming a statement straight
+   * from the database. A streamed export holds a pooled connection at the client's pace, so the
+   * cap keeps slow downloads from starving ledger writes of connections. Every successful call
+   * must be paired with {@link #releaseExport()}.
+   */
+  public boolean tryAcquireExport() {
+    return exportPermits.tryAcquire();
+  }
+
+  public void releaseExport() {
+    exportPermits.release();
+  }
+
+  /** Writes the statement as CSV; memory use is bounded by the write buffer, not the row count. */
+  public void writeCsv(long streamerId, YearMonth month, OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(
+        new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    writer.write(CSV_HEADER);
+    try {
+      ledgerEntryDao.streamMonth(streamerId, month, rs -> writeRow(writer, rs));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    writer.flush();
+  }
+
+  private static void writeRow(Writer writer, ResultSet rs) throws SQLException {
+    try {
+      writer.write(Long.toString(rs.getLong(1)));
+      writer.write(',');
+      writer.write(CREATED_AT.format(rs.getObject(2, LocalDateTime.class)));
+      writer.write(',');
+      writeField(writer, rs.getString(3));
+      writer.write(',');
+      long roomId = rs.getLong(4);
+      if (!rs.wasNull()) {
+        writer.write(Long.toString(roomId));
+      }
+      writer.write(',');
+      writeField(writer, rs.getString(5));
+      writer.write(',');
+      writer.write(Long.toString(rs.getLong(6)));
+      writer.write('\n');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void writeField(Writer writer, String value) throws IOException {
+    if (value == null) {
+      return;
+    }
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      writer.write(value);
+      return;
+    }
+    writer.write('"');
+    writer.write(value.replace("\"", "\"\""));
+    writer.write('"');
+  }
+
+}
@@ -0,0 +1,11 @@
+CREATE TABLE ledger_entries (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    streamer_id BIGINT NOT NULL,
+    room_id BIGINT,
+    entry_type VARCHAR(32) NOT NULL,
+    reference_id VARCHAR(64),
+    coins BIGINT NOT NULL,
+    created_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) NOT NULL
+);
+
+CREATE INDEX ix_ledger_entries_streamer_created ON ledger_entries (streamer_id, created_at, id);
@@ -0,0 +1,21 @@
+package org.example.livebill.controller;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class StatementControllerTests {
+
+  @Test
+  void honoursGzipQualityValues() {
+    assertTrue(StatementController.acceptsGzip("gzip, deflate, br"));
+    assertTrue(StatementController.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+    assertTrue(StatementController.acceptsGzip("*"));
+    assertFalse(StatementController.acceptsGzip(null));
+    assertFalse(StatementController.acceptsGzip("identity"));
+    assertFalse(StatementController.acceptsGzip("gzip;q=0"));
+    assertFalse(StatementController.acceptsGzip("gzip;q=0, *;q=1"));
+    assertFalse(StatementController.acceptsGzip("*;q=0"));
+  }
+}
@@ -0,0 +1,98 @@
+package org.example.livebill.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import org.example.livebill.dao.LedgerEntryDao;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StatementCacheTests {
+
+  private static final YearMonth MONTH = YearMonth.of(2026, 1);
+
+  @TempDir
+  Path cacheDir;
+
+  private final Map<Long, String> versions = new HashMap<>();
+  private final AtomicInteger builds = new AtomicInteger();
+
+  @Test
+  void keepsAStatementWhileItsMonthIsUnchanged() throws IOException {
+    versions.put(7L, "2-10");
+    StatementCache cache = cache();
+
+    cache.precompute(MONTH);
+    cache.precompute(MONTH);
+    cache.refreshCachedMonths();
+
+    assertEquals(1, builds.get());
+    assertEquals("streamer 7 at 2-10", read(cache, 7));
+  }
+
+  @Test
+  void rebuildsAStatementWhenALateEntryLandsInItsMonth() throws IOException {
+    versions.put(7L, "2-10");
+    versions.put(8L, "1-11");
+    StatementCache cache = cache();
+    cache.precompute(MONTH);
+
+    versions.put(7L, "3-42");
+    cache.refreshCachedMonths();
+
+    assertEquals(3, builds.get());
+    assertEquals("streamer 7 at 3-42", read(cache, 7));
+    assertEquals("streamer 8 at 1-11", read(cache, 8));
+  }
+
+  @Test
+  void rebuildsStatementsCachedWithoutAVersion() throws IOException {
+    Path legacy = cacheDir.resolve(MONTH.toString()).resolve("7.csv.gz");
+    Files.createDirectories(legacy.getParent());
+    Files.write(legacy, new byte[0]);
+    Files.createDirectories(cacheDir.resolve("not-a-month"));
+    versions.put(7L, "2-10");
+    StatementCache cache = cache();
+
+    cache.refreshCachedMonths();
+
+    assertEquals(1, builds.get());
+    assertEquals("streamer 7 at 2-10", read(cache, 7));
+  }
+
+  private StatementCache cache() {
+    LedgerEntryDao ledgerEntryDao = new LedgerEntryDao(null) {
+      @Override
+      public Map<Long, String> findMonthVersions(YearMonth month) {
+        return new HashMap<>(versions);
+      }
+    };
+    StatementService statementService = new StatementService(ledgerEntryDao, 1) {
+      @Override
+      public void writeCsv(long streamerId, YearMonth month, OutputStream out)
+          throws IOException {
+        builds.incrementAndGet();
+        out.write(("streamer " + streamerId + " at " + versions.get(streamerId))
+            .getBytes(StandardCharsets.UTF_8));
+      }
+    };
+    return new StatementCache(statementService, ledgerEntryDao, cacheDir);
+  }
+
+  private static String read(StatementCache cache, long streamerId) throws IOException {
+    Path file = cache.find(streamerId, MONTH).orElseThrow();
+    try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+}
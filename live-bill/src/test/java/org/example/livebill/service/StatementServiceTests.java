@@ -0,0 +1,106 @@
+package org.example.livebill.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.example.livebill.dao.LedgerEntryDao;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+class StatementServiceTests {
+
+  private static final YearMonth MONTH = YearMonth.of(2026, 10);
+
+  private static final String EXPECTED = """
+      entry_id,created_at,entry_type,room_id,reference_id,coins
+      1,2026-10-01T00:00:00.000,GIFT,7,plain,100
+      2,2026-10-01T00:00:05.123,GIFT,,"say ""hi"", twice",50
+      3,2026-10-02T12:30:00.000,PAYOUT,,,-150
+      """;
+
+  private final StatementService statementService = new StatementService(new StubLedgerEntryDao(
+      row(1, LocalDateTime.of(2026, 10, 1, 0, 0), "GIFT", 7L, "plain", 100),
+      row(2, LocalDateTime.of(2026, 10, 1, 0, 0, 5, 123_000_000), "GIFT", null,
+          "say \"hi\", twice", 50),
+      row(3, LocalDateTime.of(2026, 10, 2, 12, 30), "PAYOUT", null, null, -150)), 1);
+
+  @Test
+  void writesFixedWidthTimestampsEscapedFieldsAndEmptyNulls() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    statementService.writeCsv(42, MONTH, out);
+    assertEquals(EXPECTED, out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void writesTheSameCsvThroughGzip() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    GZIPOutputStream gz = new GZIPOutputStream(out);
+    statementService.writeCsv(42, MONTH, gz);
+    gz.finish();
+
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+      assertEquals(EXPECTED, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void capsConcurrentExports() {
+    assertTrue(statementService.tryAcquireExport());
+    assertFalse(statementService.tryAcquireExport());
+    statementService.releaseExport();
+    assertTrue(statementService.tryAcquireExport());
+  }
+
+  private static ResultSet row(
+      long id, LocalDateTime createdAt, String type, Long roomId, String reference, long coins) {
+    try {
+      ResultSet rs = mock(ResultSet.class);
+      when(rs.getLong(1)).thenReturn(id);
+      when(rs.getObject(2, LocalDateTime.class)).thenReturn(createdAt);
+      when(rs.getString(3)).thenReturn(type);
+      when(rs.getLong(4)).thenReturn(roomId == null ? 0 : roomId);
+      when(rs.wasNull()).thenReturn(roomId == null);
+      when(rs.getString(5)).thenReturn(reference);
+      when(rs.getLong(6)).thenReturn(coins);
+      return rs;
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static final class StubLedgerEntryDao extends LedgerEntryDao {
+
+    private final List<ResultSet> rows;
+
+    StubLedgerEntryDao(ResultSet... rows) {
+      super(null);
+      this.rows = List.of(rows);
+    }
+
+    @Override
+    public void streamMonth(long streamerId, YearMonth month, RowCallbackHandler handler) {
+      try {
+        for (ResultSet row : rows) {
+          handler.processRow(row);
+        }
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
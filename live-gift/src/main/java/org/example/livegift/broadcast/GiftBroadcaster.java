@@ -0,0 +1,177 @@
+package org.example.livegift.broadcast;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.example.livegift.dto.GiftEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fans gift events out to every viewer of a room over SSE.
+ *
+ * <p>Events are coalesced per room and flushed every {@code flush-interval-ms}; each frame is
+ * serialized once and the same payload is handed to every subscriber of the room. Each subscriber
+ * drains its queue on its own virtual thread, so a viewer with a full TCP window parks only its
+ * own writer and neither publishers, the flusher nor other viewers ever wait on its socket. A
+ * subscriber whose write has not finished within {@code write-timeout-ms} is evicted.
+ */
+@Component
+public class GiftBroadcaster {
+
+  private static final Logger log = LoggerFactory.getLogger(GiftBroadcaster.class);
+
+  private final ObjectMapper objectMapper;
+  private final ConcurrentMap<Long, RoomChannel> rooms = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService flusher;
+  private final ExecutorService writers;
+  private final int maxEventsPerFrame;
+  private final int subscriberQueueFrames;
+  private final long writeTimeoutNanos;
+  private final long emitterTimeoutMillis;
+
+  public GiftBroadcaster(
+      ObjectMapper objectMapper,
+      @Value("${live-gift.broadcast.flush-interval-ms:50}") long flushIntervalMillis,
+      @Value("${live-gift.broadcast.max-events-per-frame:200}") int maxEventsPerFrame,
+      @Value("${live-gift.broadcast.subscriber-queue-frames:16}") int subscriberQueueFrames,
+      @Value("${live-gift.broadcast.write-timeout-ms:10000}") long writeTimeoutMillis,
+      @Value("${live-gift.broadcast.emitter-timeout-ms:1800000}") long emitterTimeoutMillis) {
+    this.objectMapper = objectMapper;
+    this.maxEventsPerFrame = maxEventsPerFrame;
+    this.subscriberQueueFrames = subscriberQueueFrames;
+    this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+    this.emitterTimeoutMillis = emitterTimeoutMillis;
+    this.writers = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("gift-writer-", 0).factory());
+    this.flusher = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("gift-flusher").daemon().factory());
+    this.flusher.scheduleAtFixedRate(
+        this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public SseEmitter subscribe(long roomId) {
+    SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+    subscribe(roomId, emitter);
+    return emitter;
+  }
+
+  RoomSubscriber subscribe(long roomId, SseEmitter emitter) {
+    RoomSubscriber subscriber = new RoomSubscriber(roomId, emitter, subscriberQueueFrames);
+    rooms.compute(roomId, (id, channel) -> {
+      RoomChannel target = channel != null ? channel : new RoomChannel(id, maxEventsPerFrame);
+      target.subscribers().add(subscriber);
+      return target;
+    });
+    emitter.onCompletion(() -> unsubscribe(roomId, subscriber));
+    emitter.onTimeout(() -> unsubscribe(roomId, subscriber));
+    emitter.onError(e -> unsubscribe(roomId, subscriber));
+    return subscriber;
+  }
+
+  public void publish(GiftEvent event) {
+    RoomChannel channel = rooms.get(event.roomId());
+    if (channel != null) {
+      channel.append(event);
+    }
+  }
+
+  public int subscriberCount(long roomId) {
+    RoomChannel channel = rooms.get(roomId);
+    return channel == null ? 0 : channel.subscribers().size();
+  }
+
+  int roomCount() {
+    return rooms.size();
+  }
+
+  void unsubscribe(long roomId, RoomSubscriber subscriber) {
+    subscriber.close();
+    rooms.computeIfPresent(roomId, (id, channel) -> {
+      channel.subscribers().remove(subscriber);
+      return channel.subscribers().isEmpty() ? null : channel;
+    });
+  }
+
+  private void flush() {
+    long stalledSince = System.nanoTime() - writeTimeoutNanos;
+    for (RoomChannel channel : rooms.values()) {
+      try {
+        evictStalled(channel, stalledSince);
+        flush(channel);
+      } catch (RuntimeException e) {
+        log.warn("Failed to flush gift frame for room {}", channel.roomId(), e);
+      }
+    }
+  }
+
+  private void evictStalled(RoomChannel channel, long stalledSince) {
+    for (RoomSubscriber subscriber : channel.subscribers()) {
+      if (subscriber.writeStalledSince(stalledSince)) {
+        log.info("Evicting slow gift viewer of room {}", channel.roomId());
+        unsubscribe(channel.roomId(), subscriber);
+        // completeWithError waits for the stuck write to give up, so never run it on the flusher
+        writers.execute(() -> subscriber.emitter().completeWithError(
+            new IOException("Gift stream write timed out")));
+      }
+    }
+  }
+
+  private void flush(RoomChannel channel) {
+    GiftFrame frame = channel.drainFrame();
+    if (frame == null) {
+      return;
+    }
+    Set<DataWithMediaType> payload;
+    try {
+      payload = SseEmitter.event()
+          .id(Long.toString(frame.seq()))
+          .name("gifts")
+          .data(objectMapper.writeValueAsString(frame), MediaType.APPLICATION_JSON)
+          .build();
+    } catch (JsonProcessingException e) {
+      log.warn("Failed to serialize gift frame {} for room {}", frame.seq(), frame.roomId(), e);
+      return;
+    }
+    for (RoomSubscriber subscriber : channel.subscribers()) {
+      subscriber.offer(payload, writers);
+    }
+  }
+
+  /**
+   * Completes every subscription on the writer threads and gives them {@code write-timeout-ms}
+   * to finish, then interrupts the writes still stuck on a socket.
+   */
+  @PreDestroy
+  void shutdown() {
+    flusher.shutdownNow();
+    rooms.values().forEach(channel -> channel.subscribers().forEach(
+        subscriber -> subscriber.complete(writers)));
+    rooms.clear();
+    writers.shutdown();
+    try {
+      if (!writers.awaitTermination(writeTimeoutNanos, TimeUnit.NANOSECONDS)) {
+        log.info("Interrupting gift writes still running after {} ms",
+            TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+        writers.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      writers.shutdownNow();
+    }
+  }
+}
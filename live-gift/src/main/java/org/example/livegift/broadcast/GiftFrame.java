@@ -0,0 +1,18 @@
+package org.example.livegift.broadcast;
+
+import java.util.List;
+
+import org.example.livegift.dto.GiftEvent;
+
+/**
+ * One coalesced batch of gift events for a room. Events beyond the per-frame cap are not sent
+ * individually but folded into the omitted counters.
+ */
+public record GiftFrame(
+    long roomId,
+    long seq,
+    List<GiftEvent> gifts,
+    int omittedGifts,
+    long omittedCoins
+) {
+}
@@ -0,0 +1,66 @@
+package org.example.livegift.broadcast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.example.livegift.dto.GiftEvent;
+
+/**
+ * Per-room state: the viewers subscribed to the room and the gift events waiting for the next
+ * frame. Publishers only append; the flusher thread is the only one that drains.
+ */
+final class RoomChannel {
+
+  private final long roomId;
+  private final int maxEventsPerFrame;
+  private final Set<RoomSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final ConcurrentLinkedQueue<GiftEvent> pending = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingCount = new AtomicInteger();
+  private final AtomicInteger omittedGifts = new AtomicInteger();
+  private final AtomicLong omittedCoins = new AtomicLong();
+  private long seq;
+
+  RoomChannel(long roomId, int maxEventsPerFrame) {
+    this.roomId = roomId;
+    this.maxEventsPerFrame = maxEventsPerFrame;
+  }
+
+  long roomId() {
+    return roomId;
+  }
+
+  Set<RoomSubscriber> subscribers() {
+    return subscribers;
+  }
+
+  void append(GiftEvent event) {
+    if (pendingCount.incrementAndGet() > maxEventsPerFrame) {
+      pendingCount.decrementAndGet();
+      omittedGifts.incrementAndGet();
+      omittedCoins.addAndGet(event.coins());
+      return;
+    }
+    pending.add(event);
+  }
+
+  /** Returns the next frame, or {@code null} when nothing was published since the last one. */
+  GiftFrame drainFrame() {
+    int omitted = omittedGifts.getAndSet(0);
+    long coins = omittedCoins.getAndSet(0);
+    if (omitted == 0 && pending.isEmpty()) {
+      return null;
+    }
+    List<GiftEvent> gifts = new ArrayList<>(Math.min(pendingCount.get(), maxEventsPerFrame));
+    GiftEvent event;
+    while (gifts.size() < maxEventsPerFrame && (event = pending.poll()) != null) {
+      pendingCount.decrementAndGet();
+      gifts.add(event);
+    }
+    return new GiftFrame(roomId, ++seq, gifts, omitted, coins);
+  }
+}
@@ -0,0 +1,108 @@
+package org.example.livegift.broadcast;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * One viewer connection. Frames are queued in a small bounded buffer and written on a writer
+ * thread of its own; when the viewer cannot keep up the oldest frames are dropped and a summary
+ * event tells the client how many it missed. The start of the write in progress is tracked so
+ * the broadcaster can evict viewers whose socket stopped draining.
+ */
+final class RoomSubscriber {
+
+  private final long roomId;
+  private final SseEmitter emitter;
+  private final ArrayBlockingQueue<Set<DataWithMediaType>> frames;
+  private final AtomicInteger droppedFrames = new AtomicInteger();
+  private final AtomicBoolean draining = new AtomicBoolean();
+  private volatile long writeStartedNanos;
+  private volatile boolean writing;
+  private volatile boolean closed;
+
+  RoomSubscriber(long roomId, SseEmitter emitter, int queueFrames) {
+    this.roomId = roomId;
+    this.emitter = emitter;
+    this.frames = new ArrayBlockingQueue<>(queueFrames);
+  }
+
+  SseEmitter emitter() {
+    return emitter;
+  }
+
+  void offer(Set<DataWithMediaType> frame, Executor writers) {
+    if (closed) {
+      return;
+    }
+    while (!frames.offer(frame)) {
+      if (frames.poll() != null) {
+        droppedFrames.incrementAndGet();
+      }
+    }
+    if (draining.compareAndSet(false, true)) {
+      try {
+        writers.execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        draining.set(false);
+      }
+    }
+  }
+
+  /** Whether a write has been in progress since before {@code nanoTime}. */
+  boolean writeStalledSince(long nanoTime) {
+    return writing && writeStartedNanos - nanoTime < 0;
+  }
+
+  void close() {
+    closed = true;
+    frames.clear();
+  }
+
+  /**
+   * Closes the subscription and completes the emitter on a writer thread, because completing
+   * waits for a write in progress to finish and that write may be stuck on a dead socket.
+   */
+  void complete(Executor writers) {
+    close();
+    try {
+      writers.execute(emitter::complete);
+    } catch (RejectedExecutionException e) {
+      // Already shutting down: the connection is closed with the server
+    }
+  }
+
+  private void drain() {
+    try {
+      do {
+        Set<DataWithMediaType> frame;
+        while (!closed && (frame = frames.poll()) != null) {
+          writeStartedNanos = System.nanoTime();
+          writing = true;
+          int dropped = droppedFrames.getAndSet(0);
+          if (dropped > 0) {
+            emitter.send(SseEmitter.event()
+                .name("summary")
+                .data(Map.of("roomId", roomId, "droppedFrames", dropped)));
+          }
+          emitter.send(frame);
+          writing = false;
+        }
+        draining.set(false);
+      } while (!closed && !frames.isEmpty() && draining.compareAndSet(false, true));
+    } catch (IOException | RuntimeException e) {
+      // Any failure ends the subscription; leaving it open would strand it with draining set
+      writing = false;
+      close();
+      emitter.completeWithError(e);
+    }
+  }
+}
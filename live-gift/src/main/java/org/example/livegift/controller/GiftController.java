@@ -0,0 +1,41 @@
+package org.example.livegift.controller;
+
+import org.example.livegift.broadcast.GiftBroadcaster;
+import org.example.livegift.dto.GiftEvent;
+import org.example.livegift.dto.GiftRequest;
+import org.example.livegift.service.GiftService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/rooms/{roomId}/gifts")
+public class GiftController {
+
+  private final GiftService giftService;
+  private final GiftBroadcaster giftBroadcaster;
+
+  public GiftController(GiftService giftService, GiftBroadcaster giftBroadcaster) {
+    this.giftService = giftService;
+    this.giftBroadcaster = giftBroadcaster;
+  }
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  public GiftEvent sendGift(@PathVariable Long roomId, @RequestBody GiftRequest request) {
+    return giftService.sendGift(roomId, request);
+  }
+
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter stream(@PathVariable Long roomId) {
+    return giftBroadcaster.subscribe(roomId);
+  }
+
+}
@@ -0,0 +1,13 @@
+package org.example.livegift.dto;
+
+import java.time.Instant;
+
+public record GiftEvent(
+    long roomId,
+    long senderId,
+    long giftId,
+    int quantity,
+    long coins,
+    Instant sentAt
+) {
+}
@@ -0,0 +1,9 @@
+package org.example.livegift.dto;
+
+public record GiftRequest(
+    Long senderId,
+    Long giftId,
+    Integer quantity,
+    Long coins
+) {
+}
@@ -0,0 +1,46 @@
+package org.example.livegift.service;
+
+import java.time.Instant;
+
+import org.example.livegift.broadcast.GiftBroadcaster;
+import org.example.livegift.dto.GiftEvent;
+import org.example.livegift.dto.GiftRequest;
+import org.example.livegift.velocity.VelocityLimitExceededException;
+import org.example.livegift.velocity.VelocityLimiter;
+import org.example.livegift.velocity.VelocityRule;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+@Service
+public class GiftService {
+
+  private final GiftBroadcaster giftBroadcaster;
+  private final VelocityLimiter velocityLimiter;
+
+  public GiftService(GiftBroadcaster giftBroadcaster, VelocityLimiter velocityLimiter) {
+    this.giftBroadcaster = giftBroadcaster;
+    this.velocityLimiter = velocityLimiter;
+  }
+
+  public GiftEvent sendGift(long roomId, GiftRequest request) {
+    if (request.senderId() == null || request.giftId() == null) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sender and gift are required");
+    }
+    int quantity = request.quantity() == null ? 1 : request.quantity();
+    long coins = request.coins() == null ? 0 : request.coins();
+    if (quantity <= 0 || coins < 0) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Quantity must be positive and coins non-negative");
+    }
+    VelocityRule exceeded = velocityLimiter.tryAcquire(request.senderId(), roomId, coins, quantity);
+    if (exceeded != null) {
+      throw new VelocityLimitExceededException(exceeded);
+    }
+    GiftEvent event = new GiftEvent(
+        roomId, request.senderId(), request.giftId(), quantity, coins, Instant.now());
+    giftBroadcaster.publish(event);
+    return event;
+  }
+
+}
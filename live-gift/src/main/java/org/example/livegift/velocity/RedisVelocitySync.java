@@ -0,0 +1,95 @@
+package org.example.livegift.velocity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Shares velocity counts between live-gift instances. Each instance writes its own window sum for
+ * every active key into a Redis hash field ({@code sum:timestampMillis}) and reads back the other
+ * fields as the key's remote total, all in one pipeline per rule. Checks never wait on Redis; they
+ * use the remote total from the last sync, and stop counting reports older than one window. A key
+ * keeps being synced while it has a remote total, and a remote total that has not been refreshed
+ * for a window is dropped, so totals from a finished burst do not linger.
+ */
+public class RedisVelocitySync {
+
+  private static final Logger log = LoggerFactory.getLogger(RedisVelocitySync.class);
+  private static final String KEY_PREFIX = "live-gift:velocity:";
+
+  private final VelocityLimiter velocityLimiter;
+  private final StringRedisTemplate redisTemplate;
+  private final String instanceId;
+  private long[] keys = new long[0];
+  private long[] sums = new long[0];
+
+  public RedisVelocitySync(
+      VelocityLimiter velocityLimiter, StringRedisTemplate redisTemplate, String instanceId) {
+    this.velocityLimiter = velocityLimiter;
+    this.redisTemplate = redisTemplate;
+    this.instanceId = instanceId;
+  }
+
+  @Scheduled(fixedDelayString = "${live-gift.velocity.redis-sync.interval-ms:200}")
+  public synchronized void sync() {
+    for (VelocityLimiter.RuleCounter ruleCounter : velocityLimiter.ruleCounters()) {
+      try {
+        sync(ruleCounter.rule(), ruleCounter.counter());
+      } catch (DataAccessException e) {
+        log.warn("Velocity sync for rule {} failed", ruleCounter.rule().name(), e);
+      }
+    }
+  }
+
+  private void sync(VelocityRule rule, SlidingWindowCounter counter) {
+    if (keys.length < counter.capacity()) {
+      keys = new long[counter.capacity()];
+      sums = new long[counter.capacity()];
+    }
+    long now = velocityLimiter.now();
+    int count = counter.drainActive(keys, sums, now);
+    if (count == 0) {
+      return;
+    }
+    long windowMillis = rule.window().toMillis();
+    byte[] field = instanceId.getBytes(StandardCharsets.UTF_8);
+    String prefix = KEY_PREFIX + rule.name() + ":";
+    List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      for (int i = 0; i < count; i++) {
+        byte[] key = (prefix + keys[i]).getBytes(StandardCharsets.UTF_8);
+        connection.hashCommands().hSet(
+            key, field, (sums[i] + ":" + now).getBytes(StandardCharsets.UTF_8));
+        connection.keyCommands().pExpire(key, windowMillis * 2);
+        connection.hashCommands().hGetAll(key);
+      }
+      return null;
+    });
+    for (int i = 0; i < count; i++) {
+      @SuppressWarnings("unchecked")
+      Map<String, String> reports = (Map<String, String>) results.get(i * 3 + 2);
+      counter.setRemote(keys[i], remoteTotal(reports, now - windowMillis), now);
+    }
+  }
+
+  private long remoteTotal(Map<String, String> reports, long oldestReport) {
+    long total = 0;
+    for (Map.Entry<String, String> report : reports.entrySet()) {
+      if (report.getKey().equals(instanceId)) {
+        continue;
+      }
+      String value = report.getValue();
+      int separator = value.indexOf(':');
+      if (Long.parseLong(value.substring(separator + 1)) >= oldestReport) {
+        total += Long.parseLong(value.substring(0, separator));
+      }
+    }
+    return total;
+  }
+}
@@ -0,0 +1,258 @@
+package org.example.livegift.velocity;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sliding-window sums per {@code long} key, with no allocation after construction.
+ *
+ * <p>Keys hash to one of a fixed number of stripes, each guarded by its own lock and holding a
+ * preallocated open-addressing table. Every slot keeps a ring of {@link #BUCKETS} sub-window
+ * buckets, so the window slides in steps of {@code window / BUCKETS}. Slots of keys that have been
+ * idle for a full window are reused in place. If a probe run is full of live keys, the slot that
+ * was touched longest ago is evicted and that key starts counting from zero again, so size
+ * {@code slotsPerStripe} for the number of keys active within one window.
+ *
+ * <p>Each slot also carries the total that other instances reported for the key (see
+ * {@link RedisVelocitySync}); it is added to the local sum when checking a limit until it is a
+ * full window old.
+ */
+class SlidingWindowCounter {
+
+  static final int BUCKETS = 10;
+
+  private static final long EMPTY = Long.MIN_VALUE;
+  private static final int MAX_PROBE = 16;
+
+  private final long bucketMillis;
+  private final int stripeMask;
+  private final int slotMask;
+  private final Stripe[] stripes;
+
+  SlidingWindowCounter(long windowMillis, int stripes, int slotsPerStripe) {
+    this.bucketMillis = windowMillis / BUCKETS;
+    int stripeCount = Integer.highestOneBit(Math.max(stripes, 1) * 2 - 1);
+    int slotCount = Integer.highestOneBit(Math.max(slotsPerStripe, MAX_PROBE) * 2 - 1);
+    this.stripeMask = stripeCount - 1;
+    this.slotMask = slotCount - 1;
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      this.stripes[i] = new Stripe(slotCount);
+    }
+  }
+
+  /**
+   * Adds {@code amount} for {@code key} unless the window sum, including the remote total, would
+   * exceed {@code limit}. Returns whether it was added.
+   */
+  boolean tryAdd(long key, long amount, long limit, long nowMillis) {
+    long hash = mix(key);
+    Stripe stripe = stripes[(int) (hash >>> 32) & stripeMask];
+    long bucket = nowMillis / bucketMillis;
+    stripe.lock.lock();
+    try {
+      int slot = stripe.slotFor(key, (int) hash & slotMask, slotMask, bucket);
+      long total = stripe.sum(slot, bucket) + stripe.remote(slot, bucket);
+      if (total + amount > limit) {
+        return false;
+      }
+      stripe.add(slot, bucket, amount);
+      return true;
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  /** Takes back an amount added by {@link #tryAdd} at {@code nowMillis}, if still in the window. */
+  void subtract(long key, long amount, long nowMillis) {
+    long hash = mix(key);
+    Stripe stripe = stripes[(int) (hash >>> 32) & stripeMask];
+    long bucket = nowMillis / bucketMillis;
+    stripe.lock.lock();
+    try {
+      int slot = stripe.find(key, (int) hash & slotMask, slotMask);
+      if (slot >= 0) {
+        int ring = (int) (bucket % BUCKETS);
+        int index = slot * BUCKETS + ring;
+        if (stripe.epochs[index] == bucket) {
+          stripe.counts[index] -= amount;
+        }
+      }
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  /** Local window sum for {@code key}, excluding the remote total. */
+  long localSum(long key, long nowMillis) {
+    long hash = mix(key);
+    Stripe stripe = stripes[(int) (hash >>> 32) & stripeMask];
+    stripe.lock.lock();
+    try {
+      int slot = stripe.find(key, (int) hash & slotMask, slotMask);
+      return slot < 0 ? 0 : stripe.sum(slot, nowMillis / bucketMillis);
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  int capacity() {
+    return stripes.length * (slotMask + 1);
+  }
+
+  /**
+   * Copies every key with a non-zero window sum, keys whose sum dropped to zero since the last
+   * call and keys with a current remote total into the given arrays, and returns how many were
+   * copied. The last group keeps a remote total refreshed after this instance stopped counting the
+   * key. Arrays of {@link #capacity()} length never run out of room.
+   */
+  int drainActive(long[] keys, long[] sums, long nowMillis) {
+    long bucket = nowMillis / bucketMillis;
+    int count = 0;
+    for (Stripe stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        for (int slot = 0; slot < stripe.keys.length && count < keys.length; slot++) {
+          if (stripe.keys[slot] == EMPTY) {
+            continue;
+          }
+          long sum = stripe.sum(slot, bucket);
+          if (sum != 0 || stripe.reported[slot] != 0 || stripe.remote(slot, bucket) != 0) {
+            keys[count] = stripe.keys[slot];
+            sums[count] = sum;
+            stripe.reported[slot] = sum;
+            count++;
+          }
+        }
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+    return count;
+  }
+
+  /** Records what other instances counted for {@code key} in the window up to {@code nowMillis}. */
+  void setRemote(long key, long total, long nowMillis) {
+    long hash = mix(key);
+    Stripe stripe = stripes[(int) (hash >>> 32) & stripeMask];
+    stripe.lock.lock();
+    try {
+      int slot = stripe.find(key, (int) hash & slotMask, slotMask);
+      if (slot >= 0) {
+        stripe.remote[slot] = total;
+        stripe.remoteBucket[slot] = nowMillis / bucketMillis;
+      }
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  /** Murmur3 finalizer, so sequential ids spread over stripes and slots. */
+  private static long mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return key;
+  }
+
+  private final class Stripe {
+
+    final ReentrantLock lock = new ReentrantLock();
+    final long[] keys;
+    final long[] lastBucket;
+    final long[] remote;
+    final long[] remoteBucket;
+    final long[] reported;
+    final long[] counts;
+    final long[] epochs;
+
+    Stripe(int slots) {
+      keys = new long[slots];
+      Arrays.fill(keys, EMPTY);
+      lastBucket = new long[slots];
+      remote = new long[slots];
+      remoteBucket = new long[slots];
+      reported = new long[slots];
+      counts = new long[slots * BUCKETS];
+      epochs = new long[slots * BUCKETS];
+    }
+
+    int find(long key, int start, int mask) {
+      for (int probe = 0; probe < MAX_PROBE; probe++) {
+        int slot = (start + probe) & mask;
+        if (keys[slot] == key) {
+          return slot;
+        }
+        if (keys[slot] == EMPTY) {
+          // Slots are reused but never emptied, so an empty slot ends the probe run
+          return -1;
+        }
+      }
+      return -1;
+    }
+
+    int slotFor(long key, int start, int mask, long bucket) {
+      int reusable = -1;
+      int oldest = -1;
+      for (int probe = 0; probe < MAX_PROBE; probe++) {
+        int slot = (start + probe) & mask;
+        long current = keys[slot];
+        if (current == key) {
+          return slot;
+        }
+        if (current == EMPTY) {
+          return claim(reusable >= 0 ? reusable : slot, key, bucket);
+        }
+        if (reusable < 0 && bucket - lastBucket[slot] >= BUCKETS) {
+          reusable = slot;
+        }
+        if (oldest < 0 || lastBucket[slot] < lastBucket[oldest]) {
+          oldest = slot;
+        }
+      }
+      return claim(reusable >= 0 ? reusable : oldest, key, bucket);
+    }
+
+    private int claim(int slot, long key, long bucket) {
+      keys[slot] = key;
+      lastBucket[slot] = bucket;
+      remote[slot] = 0;
+      remoteBucket[slot] = 0;
+      reported[slot] = 0;
+      int base = slot * BUCKETS;
+      for (int i = 0; i < BUCKETS; i++) {
+        counts[base + i] = 0;
+        epochs[base + i] = 0;
+      }
+      return slot;
+    }
+
+    /** The remote total, or 0 once it is a window old, e.g. because syncing stopped. */
+    long remote(int slot, long bucket) {
+      return bucket - remoteBucket[slot] < BUCKETS ? remote[slot] : 0;
+    }
+
+    long sum(int slot, long bucket) {
+      int base = slot * BUCKETS;
+      long total = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        if (bucket - epochs[base + i] < BUCKETS) {
+          total += counts[base + i];
+        }
+      }
+      return total;
+    }
+
+    void add(int slot, long bucket, long amount) {
+      int index = slot * BUCKETS + (int) (bucket % BUCKETS);
+      if (epochs[index] != bucket) {
+        epochs[index] = bucket;
+        counts[index] = 0;
+      }
+      counts[index] += amount;
+      lastBucket[slot] = bucket;
+    }
+  }
+}
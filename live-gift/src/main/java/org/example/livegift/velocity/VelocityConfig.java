@@ -0,0 +1,37 @@
+package org.example.livegift.velocity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+@EnableConfigurationProperties(VelocityProperties.class)
+public class VelocityConfig {
+
+  @Bean
+  public VelocityLimiter velocityLimiter(VelocityProperties properties) {
+    return new VelocityLimiter(properties.stripes(), properties.slotsPerStripe());
+  }
+
+  @Bean
+  public VelocityRulesLoader velocityRulesLoader(
+      VelocityLimiter velocityLimiter, ObjectMapper objectMapper, VelocityProperties properties) {
+    return new VelocityRulesLoader(velocityLimiter, objectMapper, properties);
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = "live-gift.velocity.redis-sync.enabled", havingValue = "true")
+  public RedisVelocitySync redisVelocitySync(
+      VelocityLimiter velocityLimiter,
+      StringRedisTemplate redisTemplate,
+      VelocityProperties properties) {
+    String instanceId = properties.redisSync().instanceId();
+    return new RedisVelocitySync(velocityLimiter, redisTemplate,
+        instanceId == null || instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId);
+  }
+}
@@ -0,0 +1,23 @@
+package org.example.livegift.velocity;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/** 429 for a gift over a velocity rule, with a {@code Retry-After} telling the client when. */
+public class VelocityLimitExceededException extends ResponseStatusException {
+
+  private final long retryAfterSeconds;
+
+  public VelocityLimitExceededException(VelocityRule rule) {
+    super(HttpStatus.TOO_MANY_REQUESTS, "Gift limit exceeded: " + rule.name());
+    this.retryAfterSeconds = rule.retryAfterSeconds();
+  }
+
+  @Override
+  public HttpHeaders getHeaders() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    return headers;
+  }
+}
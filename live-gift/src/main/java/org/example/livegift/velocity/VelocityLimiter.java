@@ -0,0 +1,105 @@
+package org.example.livegift.velocity;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Checks gifts against the active {@link VelocityRule}s entirely in memory. A check takes one
+ * stripe lock per rule and allocates nothing; a gift is charged to every rule or to none.
+ */
+public class VelocityLimiter {
+
+  private final int stripes;
+  private final int slotsPerStripe;
+  private final LongSupplier clock;
+  private volatile RuleCounter[] ruleCounters = new RuleCounter[0];
+
+  public VelocityLimiter(int stripes, int slotsPerStripe) {
+    this(stripes, slotsPerStripe, System::currentTimeMillis);
+  }
+
+  VelocityLimiter(int stripes, int slotsPerStripe, LongSupplier clock) {
+    this.stripes = stripes;
+    this.slotsPerStripe = slotsPerStripe;
+    this.clock = clock;
+  }
+
+  /** Charges the gift to every rule and returns null, or returns the first rule it would break. */
+  public VelocityRule tryAcquire(long userId, long roomId, long coins, int quantity) {
+    RuleCounter[] current = ruleCounters;
+    long now = clock.getAsLong();
+    for (int i = 0; i < current.length; i++) {
+      RuleCounter ruleCounter = current[i];
+      if (!ruleCounter.counter.tryAdd(
+          ruleCounter.key(userId, roomId), ruleCounter.amount(coins, quantity),
+          ruleCounter.rule.limit(), now)) {
+        for (int j = 0; j < i; j++) {
+          RuleCounter charged = current[j];
+          charged.counter.subtract(
+              charged.key(userId, roomId), charged.amount(coins, quantity), now);
+        }
+        return ruleCounter.rule;
+      }
+    }
+    return null;
+  }
+
+  public List<VelocityRule> rules() {
+    List<VelocityRule> rules = new ArrayList<>();
+    for (RuleCounter ruleCounter : ruleCounters) {
+      rules.add(ruleCounter.rule);
+    }
+    return rules;
+  }
+
+  /**
+   * Replaces the active rules. Counters are kept for rules whose name, scope, metric and window are
+   * unchanged, so editing a limit does not reset what has been counted.
+   */
+  public synchronized void setRules(List<VelocityRule> rules) {
+    Set<String> names = new HashSet<>();
+    for (VelocityRule rule : rules) {
+      if (!names.add(rule.name())) {
+        throw new IllegalArgumentException("Duplicate velocity rule " + rule.name());
+      }
+    }
+    RuleCounter[] previous = ruleCounters;
+    RuleCounter[] next = new RuleCounter[rules.size()];
+    for (int i = 0; i < next.length; i++) {
+      VelocityRule rule = rules.get(i);
+      SlidingWindowCounter counter = null;
+      for (RuleCounter existing : previous) {
+        if (existing.rule.sameCounterAs(rule)) {
+          counter = existing.counter;
+        }
+      }
+      if (counter == null) {
+        counter = new SlidingWindowCounter(rule.window().toMillis(), stripes, slotsPerStripe);
+      }
+      next[i] = new RuleCounter(rule, counter);
+    }
+    ruleCounters = next;
+  }
+
+  long now() {
+    return clock.getAsLong();
+  }
+
+  RuleCounter[] ruleCounters() {
+    return ruleCounters;
+  }
+
+  record RuleCounter(VelocityRule rule, SlidingWindowCounter counter) {
+
+    long key(long userId, long roomId) {
+      return rule.scope() == VelocityRule.Scope.USER ? userId : roomId;
+    }
+
+    long amount(long coins, int quantity) {
+      return rule.metric() == VelocityRule.Metric.COINS ? coins : quantity;
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package org.example.livegift.velocity;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Velocity limits for gift sending. Rules come from {@code rules} unless {@code rules-file} points
+ * to a JSON array of rules, which is re-read whenever it changes. Each rule keeps
+ * {@code stripes * slots-per-stripe} keys, so size that for the users (or rooms) active within one
+ * window.
+ */
+@ConfigurationProperties("live-gift.velocity")
+public record VelocityProperties(
+    List<VelocityRule> rules,
+    String rulesFile,
+    @DefaultValue("5000") long reloadIntervalMs,
+    @DefaultValue("32") int stripes,
+    @DefaultValue("2048") int slotsPerStripe,
+    @DefaultValue RedisSync redisSync
+) {
+
+  /**
+   * Shares window totals between instances through Redis every {@code interval-ms}. Remote totals
+   * lag by up to one interval, so a burst spread across instances can briefly overshoot a limit.
+   */
+  public record RedisSync(
+      @DefaultValue("false") boolean enabled,
+      @DefaultValue("200") long intervalMs,
+      String instanceId
+  ) {
+  }
+}
@@ -0,0 +1,46 @@
+package org.example.livegift.velocity;
+
+import java.time.Duration;
+
+/**
+ * "At most {@code limit} {@code metric} per {@code scope} within {@code window}", e.g. at most
+ * 100000 coins per user per minute. {@code COUNT} counts gift units, so a gift sent with quantity
+ * 5 counts 5.
+ */
+public record VelocityRule(
+    String name,
+    Scope scope,
+    Metric metric,
+    Duration window,
+    long limit
+) {
+
+  public enum Scope { USER, ROOM }
+
+  public enum Metric { COINS, COUNT }
+
+  public VelocityRule {
+    if (name == null || name.isBlank() || scope == null || metric == null || window == null) {
+      throw new IllegalArgumentException("Velocity rule needs a name, scope, metric and window");
+    }
+    if (window.toMillis() < SlidingWindowCounter.BUCKETS || limit < 0) {
+      throw new IllegalArgumentException(
+          "Velocity rule " + name + " has an invalid window or limit");
+    }
+  }
+
+  /**
+   * Earliest whole number of seconds after which a gift rejected by this rule can pass: the
+   * sliding window frees capacity one bucket at a time.
+   */
+  public long retryAfterSeconds() {
+    long bucketMillis = window.toMillis() / SlidingWindowCounter.BUCKETS;
+    return Math.max(1, (bucketMillis + 999) / 1000);
+  }
+
+  /** Rules with the same counter shape can keep their counts when the limit is changed. */
+  boolean sameCounterAs(VelocityRule other) {
+    return name.equals(other.name) && scope == other.scope && metric == other.metric
+        && window.equals(other.window);
+  }
+}
@@ -0,0 +1,60 @@
+package org.example.livegift.velocity;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Loads velocity rules into the {@link VelocityLimiter} and, when {@code rules-file} is set, polls
+ * the file's modification time and swaps in the new rules without a restart. A file that cannot
+ * be read or parsed leaves the current rules in place.
+ */
+public class VelocityRulesLoader {
+
+  private static final Logger log = LoggerFactory.getLogger(VelocityRulesLoader.class);
+  private static final TypeReference<List<VelocityRule>> RULES = new TypeReference<>() {
+  };
+
+  private final VelocityLimiter velocityLimiter;
+  private final ObjectMapper objectMapper;
+  private final Path rulesFile;
+  private long loadedModified = -1;
+
+  public VelocityRulesLoader(
+      VelocityLimiter velocityLimiter, ObjectMapper objectMapper, VelocityProperties properties) {
+    this.velocityLimiter = velocityLimiter;
+    this.objectMapper = objectMapper;
+    this.rulesFile = properties.rulesFile() == null || properties.rulesFile().isBlank()
+        ? null : Path.of(properties.rulesFile());
+    velocityLimiter.setRules(properties.rules() == null ? List.of() : properties.rules());
+    reloadIfChanged();
+  }
+
+  @Scheduled(
+      initialDelayString = "${live-gift.velocity.reload-interval-ms:5000}",
+      fixedDelayString = "${live-gift.velocity.reload-interval-ms:5000}")
+  public synchronized void reloadIfChanged() {
+    if (rulesFile == null) {
+      return;
+    }
+    try {
+      long modified = Files.getLastModifiedTime(rulesFile).toMillis();
+      if (modified == loadedModified) {
+        return;
+      }
+      List<VelocityRule> rules = objectMapper.readValue(rulesFile.toFile(), RULES);
+      velocityLimiter.setRules(rules);
+      loadedModified = modified;
+      log.info("Loaded {} velocity rules from {}", rules.size(), rulesFile);
+    } catch (IOException | IllegalArgumentException e) {
+      log.error("Keeping current velocity rules, cannot load {}", rulesFile, e);
+    }
+  }
+}
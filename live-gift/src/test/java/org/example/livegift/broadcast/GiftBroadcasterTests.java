@@ -0,0 +1,125 @@
+package org.example.livegift.broadcast;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.example.livegift.dto.GiftEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class GiftBroadcasterTests {
+
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  private GiftBroadcaster broadcaster;
+
+  @AfterEach
+  void shutdown() {
+    broadcaster.shutdown();
+  }
+
+  @Test
+  void removesARoomWithItsLastSubscriber() {
+    broadcaster = new GiftBroadcaster(objectMapper, 60_000, 200, 16, 10_000, 60_000);
+    RoomSubscriber first = broadcaster.subscribe(7, new RecordingEmitter());
+    RoomSubscriber second = broadcaster.subscribe(7, new RecordingEmitter());
+    broadcaster.subscribe(8, new RecordingEmitter());
+    assertEquals(2, broadcaster.roomCount());
+
+    broadcaster.unsubscribe(7, first);
+    assertEquals(1, broadcaster.subscriberCount(7));
+    assertEquals(2, broadcaster.roomCount());
+
+    broadcaster.unsubscribe(7, second);
+    assertEquals(0, broadcaster.subscriberCount(7));
+    assertEquals(1, broadcaster.roomCount());
+  }
+
+  @Test
+  void evictsAViewerWhoseWriteStalls() throws InterruptedException {
+    broadcaster = new GiftBroadcaster(objectMapper, 10, 200, 16, 50, 60_000);
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingEmitter stuck = new RecordingEmitter(release);
+    RecordingEmitter healthy = new RecordingEmitter();
+    broadcaster.subscribe(7, stuck);
+    broadcaster.subscribe(7, healthy);
+    broadcaster.publish(new GiftEvent(7, 1L, 2L, 1, 10, Instant.EPOCH));
+
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (broadcaster.subscriberCount(7) > 1 || stuck.failure == null) {
+      assertTrue(System.nanoTime() < deadline);
+      Thread.sleep(10);
+    }
+    assertNotNull(stuck.failure);
+    assertEquals(1, healthy.sent.size());
+
+    broadcaster.publish(new GiftEvent(7, 1L, 2L, 1, 10, Instant.EPOCH));
+    while (healthy.sent.size() < 2) {
+      assertTrue(System.nanoTime() < deadline);
+      Thread.sleep(10);
+    }
+    release.countDown();
+  }
+
+  @Test
+  void serializesEachFrameOnceForAllViewers() throws InterruptedException {
+    AtomicInteger serializations = new AtomicInteger();
+    ObjectMapper countingMapper = new ObjectMapper() {
+      @Override
+      public String writeValueAsString(Object value) throws JsonProcessingException {
+        serializations.incrementAndGet();
+        return super.writeValueAsString(value);
+      }
+    };
+    countingMapper.findAndRegisterModules();
+    broadcaster = new GiftBroadcaster(countingMapper, 10, 200, 16, 10_000, 60_000);
+    List<RecordingEmitter> viewers = List.of(
+        new RecordingEmitter(), new RecordingEmitter(), new RecordingEmitter());
+    viewers.forEach(viewer -> broadcaster.subscribe(7, viewer));
+    broadcaster.publish(new GiftEvent(7, 1L, 2L, 1, 10, Instant.EPOCH));
+
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (viewers.stream().anyMatch(viewer -> viewer.sent.isEmpty())) {
+      assertTrue(System.nanoTime() < deadline);
+      Thread.sleep(10);
+    }
+    assertEquals(1, serializations.get());
+    for (RecordingEmitter viewer : viewers) {
+      assertEquals(1, viewer.sent.size());
+      assertSame(viewers.get(0).sent.get(0), viewer.sent.get(0));
+    }
+  }
+
+  @Test
+  void shutdownDoesNotWaitForAStuckWrite() throws InterruptedException {
+    broadcaster = new GiftBroadcaster(objectMapper, 10, 200, 16, 50, 60_000);
+    RecordingEmitter stuck = new RecordingEmitter(new CountDownLatch(1));
+    RecordingEmitter healthy = new RecordingEmitter();
+    RoomSubscriber stuckSubscriber = broadcaster.subscribe(7, stuck);
+    broadcaster.subscribe(7, healthy);
+    broadcaster.publish(new GiftEvent(7, 1L, 2L, 1, 10, Instant.EPOCH));
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (!stuckSubscriber.writeStalledSince(System.nanoTime()) || healthy.sent.isEmpty()) {
+      assertTrue(System.nanoTime() < deadline);
+      Thread.sleep(5);
+    }
+
+    long started = System.nanoTime();
+    broadcaster.shutdown();
+    long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+    // The stuck emitter would hold shutdown for its 10 s write; the writers get 50 ms instead
+    assertTrue(elapsedMillis < 2_000, "shutdown took " + elapsedMillis + " ms");
+    assertTrue(healthy.completed);
+    assertFalse(stuck.completed);
+    assertEquals(0, broadcaster.roomCount());
+  }
+}
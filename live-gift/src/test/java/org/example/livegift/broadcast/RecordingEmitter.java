@@ -0,0 +1,60 @@
+package org.example.livegift.broadcast;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/** Records what would be written to the viewer; can hold writes to play a stuck socket. */
+class RecordingEmitter extends SseEmitter {
+
+  final List<Set<DataWithMediaType>> sent = new CopyOnWriteArrayList<>();
+  final CountDownLatch release;
+  volatile Throwable failure;
+  volatile boolean completed;
+
+  RecordingEmitter() {
+    this(new CountDownLatch(0));
+  }
+
+  RecordingEmitter(CountDownLatch release) {
+    this.release = release;
+  }
+
+  @Override
+  public void send(SseEventBuilder builder) throws IOException {
+    send(builder.build());
+  }
+
+  @Override
+  public void send(Set<DataWithMediaType> items) throws IOException {
+    awaitRelease();
+    sent.add(items);
+  }
+
+  /** Like the real emitter, completing waits for a write in progress. */
+  @Override
+  public void complete() {
+    if (awaitRelease()) {
+      completed = true;
+    }
+  }
+
+  @Override
+  public void completeWithError(Throwable ex) {
+    failure = ex;
+  }
+
+  private boolean awaitRelease() {
+    try {
+      return release.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
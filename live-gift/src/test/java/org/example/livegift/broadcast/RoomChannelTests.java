@@ -0,0 +1,49 @@
+package org.example.livegift.broadcast;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Instant;
+import org.example.livegift.dto.GiftEvent;
+import org.junit.jupiter.api.Test;
+
+class RoomChannelTests {
+
+  private final RoomChannel channel = new RoomChannel(7, 3);
+
+  @Test
+  void coalescesEventsIntoOneFrame() {
+    channel.append(gift(10));
+    channel.append(gift(20));
+
+    GiftFrame frame = channel.drainFrame();
+    assertEquals(7, frame.roomId());
+    assertEquals(1, frame.seq());
+    assertEquals(2, frame.gifts().size());
+    assertEquals(0, frame.omittedGifts());
+    assertNull(channel.drainFrame());
+  }
+
+  @Test
+  void foldsEventsBeyondTheCapIntoOmittedCounters() {
+    for (int i = 1; i <= 5; i++) {
+      channel.append(gift(i * 100));
+    }
+
+    GiftFrame frame = channel.drainFrame();
+    assertEquals(3, frame.gifts().size());
+    assertEquals(2, frame.omittedGifts());
+    assertEquals(900, frame.omittedCoins());
+
+    channel.append(gift(1));
+    GiftFrame next = channel.drainFrame();
+    assertEquals(2, next.seq());
+    assertEquals(1, next.gifts().size());
+    assertEquals(0, next.omittedGifts());
+    assertEquals(0, next.omittedCoins());
+  }
+
+  private static GiftEvent gift(long coins) {
+    return new GiftEvent(7, 1L, 2L, 1, coins, Instant.EPOCH);
+  }
+}
@@ -0,0 +1,90 @@
+package org.example.livegift.broadcast;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+class RoomSubscriberTests {
+
+  private static final List<Set<DataWithMediaType>> FRAMES = frames(6);
+
+  private final List<Runnable> scheduled = new ArrayList<>();
+  private final Executor writers = scheduled::add;
+
+  @Test
+  void dropsTheOldestFramesAndReportsThemInASummary() {
+    RecordingEmitter emitter = new RecordingEmitter();
+    RoomSubscriber subscriber = new RoomSubscriber(7, emitter, 4);
+    for (int i = 0; i < 6; i++) {
+      subscriber.offer(frame(i), writers);
+    }
+    assertEquals(1, scheduled.size());
+    scheduled.get(0).run();
+
+    assertEquals(5, emitter.sent.size());
+    assertTrue(emitter.sent.get(0).stream().anyMatch(item ->
+        item.getData() instanceof Map<?, ?> summary
+            && Integer.valueOf(2).equals(summary.get("droppedFrames"))));
+    assertEquals(frame(2), emitter.sent.get(1));
+    assertEquals(frame(5), emitter.sent.get(4));
+  }
+
+  @Test
+  void aFailedWriteEndsTheSubscription() {
+    RecordingEmitter emitter = new RecordingEmitter() {
+      @Override
+      public void send(Set<DataWithMediaType> items) {
+        throw new UnsupportedOperationException("boom");
+      }
+    };
+    RoomSubscriber subscriber = new RoomSubscriber(7, emitter, 4);
+    subscriber.offer(frame(0), writers);
+    scheduled.get(0).run();
+
+    assertNotNull(emitter.failure);
+    subscriber.offer(frame(1), writers);
+    assertEquals(1, scheduled.size());
+  }
+
+  @Test
+  void reportsAWriteThatDoesNotFinish() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingEmitter emitter = new RecordingEmitter(release);
+    RoomSubscriber subscriber = new RoomSubscriber(7, emitter, 4);
+    subscriber.offer(frame(0), task -> Thread.ofVirtual().start(task));
+    long deadline = System.nanoTime() + 5_000_000_000L;
+    while (!subscriber.writeStalledSince(System.nanoTime()) && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertTrue(subscriber.writeStalledSince(System.nanoTime()));
+
+    release.countDown();
+    while (emitter.sent.isEmpty() || subscriber.writeStalledSince(System.nanoTime())) {
+      assertTrue(System.nanoTime() < deadline);
+      Thread.sleep(5);
+    }
+    assertEquals(List.of(frame(0)), emitter.sent);
+  }
+
+  private static Set<DataWithMediaType> frame(int seq) {
+    return FRAMES.get(seq);
+  }
+
+  private static List<Set<DataWithMediaType>> frames(int count) {
+    List<Set<DataWithMediaType>> frames = new ArrayList<>();
+    for (int seq = 0; seq < count; seq++) {
+      frames.add(Set.of(new DataWithMediaType("frame-" + seq, MediaType.TEXT_PLAIN)));
+    }
+    return frames;
+  }
+}
@@ -0,0 +1,124 @@
+package org.example.livegift.velocity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class RedisVelocitySyncTests {
+
+  private static final VelocityRule USER_COINS = new VelocityRule(
+      "user-coins", VelocityRule.Scope.USER, VelocityRule.Metric.COINS,
+      Duration.ofSeconds(10), 100);
+
+  private final AtomicLong clock = new AtomicLong(1_000_000);
+  // Redis hashes by key, shared by every instance like a real server
+  private final Map<String, Map<String, String>> hashes = new HashMap<>();
+  private final List<Map<String, String>> reads = new ArrayList<>();
+  private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+  private final RedisConnection connection = mock(RedisConnection.class);
+  private final RedisHashCommands hashCommands = mock(RedisHashCommands.class);
+
+  private final VelocityLimiter limiterA = limiter();
+  private final VelocityLimiter limiterB = limiter();
+  private final RedisVelocitySync instanceA = new RedisVelocitySync(limiterA, redisTemplate, "a");
+  private final RedisVelocitySync instanceB = new RedisVelocitySync(limiterB, redisTemplate, "b");
+
+  RedisVelocitySyncTests() {
+    when(connection.hashCommands()).thenReturn(hashCommands);
+    when(connection.keyCommands()).thenReturn(mock(RedisKeyCommands.class));
+    when(hashCommands.hSet(any(byte[].class), any(byte[].class), any(byte[].class)))
+        .thenAnswer(invocation -> {
+          hashes.computeIfAbsent(text(invocation.getArgument(0)), key -> new HashMap<>())
+              .put(text(invocation.getArgument(1)), text(invocation.getArgument(2)));
+          return null;
+        });
+    when(hashCommands.hGetAll(any(byte[].class))).thenAnswer(invocation -> {
+      reads.add(Map.copyOf(hashes.getOrDefault(text(invocation.getArgument(0)), Map.of())));
+      return null;
+    });
+    // Pipelined results come back as HSET, PEXPIRE, HGETALL for every key
+    when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+      reads.clear();
+      ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+      List<Object> results = new ArrayList<>();
+      for (Map<String, String> read : reads) {
+        results.add(Boolean.TRUE);
+        results.add(Boolean.TRUE);
+        results.add(read);
+      }
+      return results;
+    });
+  }
+
+  @Test
+  void countsWhatOtherInstancesReported() {
+    assertNull(limiterB.tryAcquire(1, 7, 80, 1));
+    instanceB.sync();
+    assertNull(limiterA.tryAcquire(1, 7, 10, 1));
+    instanceA.sync();
+
+    assertEquals(USER_COINS, limiterA.tryAcquire(1, 7, 20, 1));
+    assertNull(limiterA.tryAcquire(1, 7, 10, 1));
+  }
+
+  @Test
+  void refreshesTheRemoteTotalAfterTheLocalSumDroppedToZero() {
+    assertNull(limiterB.tryAcquire(1, 7, 80, 1));
+    instanceB.sync();
+    assertNull(limiterA.tryAcquire(1, 7, 10, 1));
+    instanceA.sync();
+
+    // B reports its 80 again; A's own 10 has left the window and A last reports it
+    clock.addAndGet(5_000);
+    instanceB.sync();
+    clock.addAndGet(5_100);
+    instanceA.sync();
+    assertEquals(USER_COINS, limiterA.tryAcquire(1, 7, 30, 1));
+
+    // B's 80 leaves its window too; A keeps syncing the key only for its remote total
+    clock.addAndGet(6_000);
+    instanceB.sync();
+    instanceA.sync();
+    assertEquals("0:" + clock.get(), hashes.get("live-gift:velocity:user-coins:1").get("a"));
+    assertNull(limiterA.tryAcquire(1, 7, 30, 1));
+  }
+
+  @Test
+  void dropsARemoteTotalThatWasNotRefreshedForAWindow() {
+    assertNull(limiterB.tryAcquire(1, 7, 80, 1));
+    instanceB.sync();
+    assertNull(limiterA.tryAcquire(1, 7, 10, 1));
+    instanceA.sync();
+    assertEquals(USER_COINS, limiterA.tryAcquire(1, 7, 20, 1));
+
+    // No more syncs, e.g. Redis is unreachable
+    clock.addAndGet(10_000);
+    assertNull(limiterA.tryAcquire(1, 7, 100, 1));
+  }
+
+  private VelocityLimiter limiter() {
+    VelocityLimiter limiter = new VelocityLimiter(4, 64, clock::get);
+    limiter.setRules(List.of(USER_COINS));
+    return limiter;
+  }
+
+  private static String text(byte[] bytes) {
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
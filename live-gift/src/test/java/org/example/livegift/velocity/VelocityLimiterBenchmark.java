@@ -0,0 +1,75 @@
+package org.example.livegift.velocity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Cost of one gift check against the default two rules. Run with
+ * {@code mvn test-compile} and then this class's {@code main} from the IDE, or
+ * {@code java -cp target/test-classes:<test classpath> org.openjdk.jmh.Main VelocityLimiter}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VelocityLimiterBenchmark {
+
+  @Param({"1000", "100000"})
+  int activeUsers;
+
+  VelocityLimiter limiter;
+
+  @Setup
+  public void setUp() {
+    limiter = new VelocityLimiter(32, 2048);
+    // Limits high enough that every check passes, so each call does the full work for both rules
+    limiter.setRules(List.of(
+        new VelocityRule("user-coins-per-minute", VelocityRule.Scope.USER,
+            VelocityRule.Metric.COINS, Duration.ofMinutes(1), Long.MAX_VALUE / 2),
+        new VelocityRule("room-gifts-per-second", VelocityRule.Scope.ROOM,
+            VelocityRule.Metric.COUNT, Duration.ofSeconds(1), Long.MAX_VALUE / 2)));
+  }
+
+  @State(Scope.Thread)
+  public static class Sender {
+
+    long next;
+  }
+
+  @Benchmark
+  public VelocityRule check(Sender sender) {
+    long userId = sender.next++ % activeUsers;
+    return limiter.tryAcquire(userId, userId % 500, 10, 1);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public VelocityRule checkFromEightThreads(Sender sender) {
+    long userId = sender.next++ % activeUsers;
+    return limiter.tryAcquire(userId, userId % 500, 10, 1);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(VelocityLimiterBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
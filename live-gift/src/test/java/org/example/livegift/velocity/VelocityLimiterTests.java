@@ -0,0 +1,72 @@
+package org.example.livegift.velocity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class VelocityLimiterTests {
+
+  private static final VelocityRule USER_COINS = new VelocityRule(
+      "user-coins", VelocityRule.Scope.USER, VelocityRule.Metric.COINS,
+      Duration.ofSeconds(10), 100);
+  private static final VelocityRule ROOM_COUNT = new VelocityRule(
+      "room-count", VelocityRule.Scope.ROOM, VelocityRule.Metric.COUNT, Duration.ofSeconds(1), 3);
+
+  private final AtomicLong clock = new AtomicLong(1_000_000);
+  private final VelocityLimiter limiter = new VelocityLimiter(4, 64, clock::get);
+
+  @Test
+  void rejectsOnceTheWindowIsFullAndAdmitsAgainAsItSlides() {
+    limiter.setRules(List.of(USER_COINS));
+    assertNull(limiter.tryAcquire(1, 7, 60, 1));
+    clock.addAndGet(5_000);
+    assertNull(limiter.tryAcquire(1, 7, 40, 1));
+    assertEquals(USER_COINS, limiter.tryAcquire(1, 7, 1, 1));
+    assertNull(limiter.tryAcquire(2, 7, 100, 1));
+
+    clock.addAndGet(5_000);
+    assertNull(limiter.tryAcquire(1, 7, 60, 1));
+    assertEquals(USER_COINS, limiter.tryAcquire(1, 7, 1, 1));
+  }
+
+  @Test
+  void rejectedGiftsAreNotChargedToOtherRules() {
+    limiter.setRules(List.of(USER_COINS, ROOM_COUNT));
+    assertNull(limiter.tryAcquire(1, 7, 90, 1));
+    assertEquals(ROOM_COUNT, limiter.tryAcquire(1, 7, 10, 3));
+    assertNull(limiter.tryAcquire(1, 7, 10, 2));
+  }
+
+  @Test
+  void changingALimitKeepsTheCounts() {
+    limiter.setRules(List.of(USER_COINS));
+    assertNull(limiter.tryAcquire(1, 7, 100, 1));
+    limiter.setRules(List.of(new VelocityRule(
+        "user-coins", VelocityRule.Scope.USER, VelocityRule.Metric.COINS,
+        Duration.ofSeconds(10), 150)));
+    assertNull(limiter.tryAcquire(1, 7, 50, 1));
+    assertEquals("user-coins", limiter.tryAcquire(1, 7, 1, 1).name());
+  }
+
+  @Test
+  void keepsLimitingWhenMoreKeysThanSlotsAreActive() {
+    limiter.setRules(List.of(USER_COINS));
+    for (long user = 0; user < 10_000; user++) {
+      assertNull(limiter.tryAcquire(user, 7, 1, 1));
+    }
+    assertNull(limiter.tryAcquire(1_000_000, 7, 100, 1));
+    assertEquals(USER_COINS, limiter.tryAcquire(1_000_000, 7, 1, 1));
+  }
+
+  @Test
+  void suggestsRetryingOnceTheOldestBucketExpires() {
+    assertEquals(1, USER_COINS.retryAfterSeconds());
+    assertEquals(1, ROOM_COUNT.retryAfterSeconds());
+    assertEquals(6, new VelocityRule("per-minute", VelocityRule.Scope.USER,
+        VelocityRule.Metric.COINS, Duration.ofMinutes(1), 100).retryAfterSeconds());
+  }
+}
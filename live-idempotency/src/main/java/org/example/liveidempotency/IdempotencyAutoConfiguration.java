@@ -0,0 +1,44 @@
+package org.example.liveidempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Registers an {@link IdempotencyFilter} in every servlet application that has this module and a
+ * {@link StringRedisTemplate}. Settings live under {@code idempotency.*}; keys are prefixed with
+ * {@code spring.application.name} unless {@code idempotency.key-prefix} is set.
+ */
+@AutoConfiguration(after = {RedisAutoConfiguration.class, JacksonAutoConfiguration.class})
+@ConditionalOnWebApplication(type = Type.SERVLET)
+@ConditionalOnBean(StringRedisTemplate.class)
+@ConditionalOnProperty(name = "idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyAutoConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean
+  public IdempotencyFilter idempotencyFilter(
+      StringRedisTemplate redisTemplate,
+      ObjectMapper objectMapper,
+      @Value("${idempotency.key-prefix:${spring.application.name:application}:idempotency:}")
+      String keyPrefix,
+      @Value("${idempotency.lease-ms:30000}") long leaseMillis,
+      @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds,
+      @Value("${idempotency.wait-timeout-ms:5000}") long waitTimeoutMillis,
+      @Value("${idempotency.bloom-expected-keys:1000000}") int bloomExpectedKeys) {
+    return new IdempotencyFilter(redisTemplate, objectMapper, keyPrefix,
+        Duration.ofMillis(leaseMillis), Duration.ofSeconds(ttlSeconds),
+        Duration.ofMillis(waitTimeoutMillis), bloomExpectedKeys);
+  }
+}
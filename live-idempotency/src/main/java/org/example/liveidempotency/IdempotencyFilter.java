@@ -0,0 +1,247 @@
+package org.example.liveidempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Makes write requests carrying an {@code Idempotency-Key} header safe to retry.
+ *
+ * <p>The first request for a key claims it in Redis for {@code lease}, which should be about
+ * twice the longest request, and its response is then stored for {@code ttl}; retries get the
+ * stored response back with {@code Idempotent-Replayed: true}. A local Bloom filter of seen keys
+ * keeps the common case, a brand-new key, to a single {@code SET NX}. Duplicates that arrive
+ * while the first request is still running wait for it, on the in-process future when it runs
+ * here and by polling Redis otherwise, and get 409 if it does not finish within
+ * {@code waitTimeout}. Responses the client is expected to retry, 5xx as well as 408, 409, 425
+ * and 429, are not stored: the key is released so the retry runs again. If Redis is unreachable
+ * before the key could be looked up or claimed, the request is passed through unprotected; once
+ * the key is known to be taken, a Redis failure answers 409 instead, so a duplicate never runs
+ * twice.
+ *
+ * <p>{@link IdempotencyAutoConfiguration} registers it; each service gets its own key prefix so
+ * that services sharing a Redis never see each other's keys.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+  public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+  private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+  private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH");
+  private static final int MAX_KEY_LENGTH = 255;
+  private static final Set<Integer> RETRYABLE_CLIENT_ERRORS = Set.of(408, 409, 425, 429);
+
+  private final IdempotencyStore store;
+  private final KeyBloomFilter seenKeys;
+  private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight =
+      new ConcurrentHashMap<>();
+  private final String keyPrefix;
+  private final long waitTimeoutMillis;
+
+  /**
+   * @param keyPrefix prepended to every Redis key, e.g. {@code "live-gift:idempotency:"}
+   * @param lease how long a pending claim holds the key
+   * @param ttl how long a completed response is replayed
+   * @param waitTimeout how long a duplicate waits for the first request before getting 409
+   * @param bloomExpectedKeys keys per Bloom filter generation
+   */
+  public IdempotencyFilter(
+      StringRedisTemplate redisTemplate,
+      ObjectMapper objectMapper,
+      String keyPrefix,
+      Duration lease,
+      Duration ttl,
+      Duration waitTimeout,
+      int bloomExpectedKeys) {
+    this.store = new IdempotencyStore(redisTemplate, objectMapper, lease, ttl);
+    this.seenKeys = new KeyBloomFilter(bloomExpectedKeys);
+    this.keyPrefix = keyPrefix;
+    this.waitTimeoutMillis = waitTimeout.toMillis();
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !WRITE_METHODS.contains(request.getMethod())
+        || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String clientKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+    if (clientKey.isBlank() || clientKey.length() > MAX_KEY_LENGTH) {
+      response.sendError(HttpStatus.BAD_REQUEST.value(),
+          IDEMPOTENCY_KEY_HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+      return;
+    }
+    String key = keyPrefix + request.getMethod() + " " + request.getRequestURI() + ":" + clientKey;
+
+    CompletableFuture<StoredResponse> local = new CompletableFuture<>();
+    CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, local);
+    if (running != null) {
+      replayOrConflict(awaitLocal(running), response);
+      return;
+    }
+    try {
+      boolean claimed;
+      try {
+        claimed = claim(key, response, local);
+      } catch (DataAccessException e) {
+        // Only the first lookup or claim can get here; awaitRemote answers 409 on its own failures
+        log.warn("Idempotency store unavailable, passing {} through", key, e);
+        filterChain.doFilter(request, response);
+        return;
+      }
+      if (claimed) {
+        local.complete(execute(key, request, response, filterChain));
+      }
+    } finally {
+      // Waiters treat null as "not stored"; a no-op when execute already completed the future
+      local.complete(null);
+      inFlight.remove(key, local);
+    }
+  }
+
+  /**
+   * Claims {@code key} for this request. Returns false when the response has already been written
+   * from an earlier attempt, in which case {@code local} carries it to same-instance duplicates.
+   */
+  private boolean claim(
+      String key, HttpServletResponse response, CompletableFuture<StoredResponse> local)
+      throws IOException {
+    // Keys this instance has (probably) seen are likely retries: look up the stored response
+    // first. New keys go straight to SET NX, which is all a first attempt needs.
+    if (seenKeys.mightContain(key)) {
+      Optional<IdempotencyStore.Record> existing = store.find(key);
+      if (existing.isPresent()) {
+        local.complete(replayOrConflict(awaitRemote(key, existing.get()), response));
+        return false;
+      }
+    }
+    if (!store.claim(key)) {
+      local.complete(replayOrConflict(awaitRemote(key, null), response));
+      return false;
+    }
+    seenKeys.put(key);
+    return true;
+  }
+
+  private StoredResponse execute(
+      String key, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+    StoredResponse stored = null;
+    try {
+      chain.doFilter(request, wrapper);
+      if (!isRetryable(wrapper.getStatus())) {
+        stored = new StoredResponse(
+            wrapper.getStatus(), wrapper.getContentType(), wrapper.getContentAsByteArray());
+      }
+    } finally {
+      try {
+        if (stored != null) {
+          store.complete(key, stored);
+        } else {
+          store.release(key);
+        }
+      } catch (DataAccessException e) {
+        // The claim expires with its lease; retries get 409 until then rather than a second run
+        log.warn("Could not record the response for {}", key, e);
+      }
+      wrapper.copyBodyToResponse();
+    }
+    return stored;
+  }
+
+  private static boolean isRetryable(int status) {
+    return status >= 500 || RETRYABLE_CLIENT_ERRORS.contains(status);
+  }
+
+  private StoredResponse awaitLocal(CompletableFuture<StoredResponse> running) {
+    try {
+      return running.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException | TimeoutException e) {
+      return null;
+    }
+  }
+
+  /** Polls Redis with exponential backoff until the first request for {@code key} completes. */
+  private StoredResponse awaitRemote(String key, IdempotencyStore.Record current) {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+    long backoffMillis = 10;
+    Optional<IdempotencyStore.Record> record = Optional.ofNullable(current);
+    while (true) {
+      if (record.isPresent() && !record.get().pending()) {
+        return record.get().response();
+      }
+      if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis) > deadline) {
+        return null;
+      }
+      try {
+        Thread.sleep(backoffMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+      backoffMillis = Math.min(backoffMillis * 2, 200);
+      try {
+        record = store.find(key);
+      } catch (DataAccessException e) {
+        // The key is taken, so running the request here could run it twice
+        log.warn("Idempotency store unavailable while waiting for {}", key, e);
+        return null;
+      }
+      if (record.isEmpty()) {
+        // The first attempt failed with a retryable status and released the key; let the client
+        // retry it.
+        return null;
+      }
+    }
+  }
+
+  private static StoredResponse replayOrConflict(
+      StoredResponse stored, HttpServletResponse response) throws IOException {
+    if (stored == null) {
+      response.setHeader("Retry-After", "1");
+      response.sendError(HttpStatus.CONFLICT.value(),
+          "A request with this " + IDEMPOTENCY_KEY_HEADER + " is in progress or failed");
+      return null;
+    }
+    response.setStatus(stored.status());
+    response.setHeader(REPLAYED_HEADER, "true");
+    if (stored.contentType() != null) {
+      response.setContentType(stored.contentType());
+    }
+    response.setContentLength(stored.body().length);
+    response.getOutputStream().write(stored.body());
+    return stored;
+  }
+}
@@ -0,0 +1,70 @@
+package org.example.liveidempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Idempotency records in Redis. A key is first claimed with a pending marker (SET NX) and then
+ * overwritten with the serialized response. The marker only lives for a short lease, so a claim
+ * left behind by a crashed instance frees the key quickly; the response is kept for the TTL.
+ */
+class IdempotencyStore {
+
+  static final String PENDING = "pending";
+
+  private final StringRedisTemplate redisTemplate;
+  private final ObjectMapper objectMapper;
+  private final Duration lease;
+  private final Duration ttl;
+
+  IdempotencyStore(
+      StringRedisTemplate redisTemplate, ObjectMapper objectMapper, Duration lease, Duration ttl) {
+    this.redisTemplate = redisTemplate;
+    this.objectMapper = objectMapper;
+    this.lease = lease;
+    this.ttl = ttl;
+  }
+
+  /** Empty when the key is unknown, {@link Record#pending()} while the first request runs. */
+  Optional<Record> find(String key) {
+    String value = redisTemplate.opsForValue().get(key);
+    if (value == null) {
+      return Optional.empty();
+    }
+    if (PENDING.equals(value)) {
+      return Optional.of(new Record(null));
+    }
+    try {
+      return Optional.of(new Record(objectMapper.readValue(value, StoredResponse.class)));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Corrupt idempotency record " + key, e);
+    }
+  }
+
+  boolean claim(String key) {
+    return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, PENDING, lease));
+  }
+
+  void complete(String key, StoredResponse response) {
+    try {
+      redisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(response), ttl);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize response for " + key, e);
+    }
+  }
+
+  void release(String key) {
+    redisTemplate.delete(key);
+  }
+
+  record Record(StoredResponse response) {
+
+    boolean pending() {
+      return response == null;
+    }
+  }
+}
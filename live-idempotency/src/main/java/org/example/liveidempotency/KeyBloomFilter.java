@@ -0,0 +1,90 @@
+package org.example.liveidempotency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process Bloom filter of idempotency keys this instance has handled. A negative answer means
+ * the key is almost certainly new, so the filter lets fresh keys skip the lookup of a stored
+ * response. Two generations are kept and rotated by insert count, which bounds the false positive
+ * rate without ever clearing recent keys.
+ */
+class KeyBloomFilter {
+
+  private static final int HASHES = 7;
+
+  private final int bits;
+  private final int rotateAfter;
+  private final AtomicInteger inserts = new AtomicInteger();
+  private volatile AtomicLongArray current;
+  private volatile AtomicLongArray previous;
+
+  KeyBloomFilter(int expectedKeys) {
+    // ~1% false positives per generation: m = -n ln(p) / ln(2)^2
+    long optimal = (long) Math.ceil(-expectedKeys * Math.log(0.01) / (Math.log(2) * Math.log(2)));
+    this.bits = (int) Math.min(Math.max(optimal, 1024), Integer.MAX_VALUE - 64);
+    this.rotateAfter = Math.max(expectedKeys, 1);
+    this.current = new AtomicLongArray((bits + 63) / 64);
+    this.previous = new AtomicLongArray((bits + 63) / 64);
+  }
+
+  boolean mightContain(String key) {
+    long hash = hash(key);
+    return contains(current, hash) || contains(previous, hash);
+  }
+
+  void put(String key) {
+    if (inserts.incrementAndGet() > rotateAfter) {
+      rotate();
+    }
+    long hash = hash(key);
+    AtomicLongArray words = current;
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32) | 1;
+    for (int i = 0; i < HASHES; i++) {
+      int bit = Math.floorMod(h1 + i * h2, bits);
+      long mask = 1L << (bit & 63);
+      int word = bit >>> 6;
+      long value;
+      do {
+        value = words.get(word);
+      } while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask));
+    }
+  }
+
+  private synchronized void rotate() {
+    if (inserts.get() <= rotateAfter) {
+      return;
+    }
+    previous = current;
+    current = new AtomicLongArray((bits + 63) / 64);
+    inserts.set(0);
+  }
+
+  private boolean contains(AtomicLongArray words, long hash) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32) | 1;
+    for (int i = 0; i < HASHES; i++) {
+      int bit = Math.floorMod(h1 + i * h2, bits);
+      if ((words.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** 64-bit FNV-1a followed by a murmur3 finalizer. */
+  private static long hash(String key) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      hash ^= key.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
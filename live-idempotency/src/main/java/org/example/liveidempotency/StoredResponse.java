@@ -0,0 +1,9 @@
+package org.example.liveidempotency;
+
+/** A completed response kept for replay; {@code body} is serialized as base64 by Jackson. */
+public record StoredResponse(
+    int status,
+    String contentType,
+    byte[] body
+) {
+}
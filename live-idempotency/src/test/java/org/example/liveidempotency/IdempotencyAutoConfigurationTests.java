@@ -0,0 +1,53 @@
+package org.example.liveidempotency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+class IdempotencyAutoConfigurationTests {
+
+  private final WebApplicationContextRunner runner = new WebApplicationContextRunner()
+      .withConfiguration(AutoConfigurations.of(IdempotencyAutoConfiguration.class))
+      .withBean(StringRedisTemplate.class, () -> mock(StringRedisTemplate.class))
+      .withBean(ObjectMapper.class, ObjectMapper::new)
+      .withPropertyValues("spring.application.name=live-gift");
+
+  @Test
+  void registersTheFilterInServletApplications() {
+    runner.run(context -> assertEquals(1, filters(context)));
+  }
+
+  @Test
+  void canBeSwitchedOff() {
+    runner.withPropertyValues("idempotency.enabled=false")
+        .run(context -> assertEquals(0, filters(context)));
+  }
+
+  @Test
+  void needsRedis() {
+    new WebApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(IdempotencyAutoConfiguration.class))
+        .withBean(ObjectMapper.class, ObjectMapper::new)
+        .run(context -> assertEquals(0, filters(context)));
+  }
+
+  @Test
+  void staysOutOfNonWebApplications() {
+    new ApplicationContextRunner()
+        .withConfiguration(AutoConfigurations.of(IdempotencyAutoConfiguration.class))
+        .withBean(StringRedisTemplate.class, () -> mock(StringRedisTemplate.class))
+        .withBean(ObjectMapper.class, ObjectMapper::new)
+        .run(context -> assertEquals(0, filters(context)));
+  }
+
+  private static int filters(ApplicationContext context) {
+    return context.getBeanNamesForType(IdempotencyFilter.class).length;
+  }
+}
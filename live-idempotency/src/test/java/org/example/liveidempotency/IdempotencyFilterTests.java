@@ -0,0 +1,296 @@
+package org.example.liveidempotency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class IdempotencyFilterTests {
+
+  private static final Duration LEASE = Duration.ofSeconds(30);
+  private static final Duration TTL = Duration.ofHours(24);
+  private static final String KEY = "test:idempotency:POST /api/gifts:key-1";
+
+  // A map standing in for Redis, shared by every filter built by a test like a real cluster
+  private final Map<String, String> redis = new ConcurrentHashMap<>();
+  private final Map<String, Duration> expiries = new ConcurrentHashMap<>();
+  private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+  @SuppressWarnings("unchecked")
+  private final ValueOperations<String, String> values = mock(ValueOperations.class);
+  private final AtomicInteger executions = new AtomicInteger();
+
+  IdempotencyFilterTests() {
+    when(redisTemplate.opsForValue()).thenReturn(values);
+    when(values.get(anyString())).thenAnswer(invocation -> redis.get(invocation.getArgument(0)));
+    when(values.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        .thenAnswer(invocation -> {
+          String key = invocation.getArgument(0);
+          boolean set = redis.putIfAbsent(key, invocation.getArgument(1)) == null;
+          if (set) {
+            expiries.put(key, invocation.getArgument(2));
+          }
+          return set;
+        });
+    doAnswer(invocation -> {
+      redis.put(invocation.getArgument(0), invocation.getArgument(1));
+      expiries.put(invocation.getArgument(0), invocation.getArgument(2));
+      return null;
+    }).when(values).set(anyString(), anyString(), any(Duration.class));
+    when(redisTemplate.delete(anyString()))
+        .thenAnswer(invocation -> redis.remove(invocation.getArgument(0)) != null);
+  }
+
+  @Test
+  void storesTheFirstResponseAndReplaysIt() throws Exception {
+    IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+    Map<String, Object> duringRequest = new ConcurrentHashMap<>();
+    FilterChain chain = (request, response) -> {
+      duringRequest.put("value", redis.get(KEY));
+      duringRequest.put("expiry", expiries.get(KEY));
+      created().doFilter(request, response);
+    };
+
+    MockHttpServletResponse first = send(filter, chain);
+    assertEquals(201, first.getStatus());
+    assertEquals("{\"execution\":1}", first.getContentAsString());
+    assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertEquals(IdempotencyStore.PENDING, duringRequest.get("value"));
+    assertEquals(LEASE, duringRequest.get("expiry"));
+    assertEquals(TTL, expiries.get(KEY));
+
+    MockHttpServletResponse retry = send(filter, chain);
+    assertEquals(201, retry.getStatus());
+    assertEquals("{\"execution\":1}", retry.getContentAsString());
+    assertEquals("application/json", retry.getContentType());
+    assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  void duplicateOnTheSameInstanceWaitsForTheFirstRequest() throws Exception {
+    IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+    FilterChain chain = blocking(started, finish);
+
+    CompletableFuture<MockHttpServletResponse> first = sendAsync(filter, chain);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    CompletableFuture<MockHttpServletResponse> duplicate = sendAsync(filter, chain);
+    Thread.sleep(100);
+    assertFalse(duplicate.isDone());
+    // Waits on the in-process future, never on Redis
+    verify(values, never()).get(anyString());
+
+    finish.countDown();
+    assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+    MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+    assertEquals(201, replayed.getStatus());
+    assertEquals("{\"execution\":1}", replayed.getContentAsString());
+    assertEquals("true", replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  void duplicateOnAnotherInstancePollsRedisForTheResponse() throws Exception {
+    IdempotencyFilter instanceA = filter(Duration.ofSeconds(5));
+    IdempotencyFilter instanceB = filter(Duration.ofSeconds(5));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+    FilterChain chain = blocking(started, finish);
+
+    CompletableFuture<MockHttpServletResponse> first = sendAsync(instanceA, chain);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    CompletableFuture<MockHttpServletResponse> duplicate = sendAsync(instanceB, chain);
+    Thread.sleep(100);
+    assertFalse(duplicate.isDone());
+
+    finish.countDown();
+    assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+    MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+    assertEquals(201, replayed.getStatus());
+    assertEquals("{\"execution\":1}", replayed.getContentAsString());
+    assertEquals("true", replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  void answersConflictWhenTheFirstRequestOutlastsTheWait() throws Exception {
+    IdempotencyFilter instanceA = filter(Duration.ofSeconds(5));
+    IdempotencyFilter instanceB = filter(Duration.ofMillis(50));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch finish = new CountDownLatch(1);
+    FilterChain chain = blocking(started, finish);
+
+    CompletableFuture<MockHttpServletResponse> first = sendAsync(instanceA, chain);
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    MockHttpServletResponse conflict = send(instanceB, chain);
+    finish.countDown();
+
+    assertEquals(409, conflict.getStatus());
+    assertEquals("1", conflict.getHeader("Retry-After"));
+    assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  void releasesTheKeyAfterAServerError() throws Exception {
+    IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+    MockHttpServletResponse failed = send(filter, (request, response) -> {
+      executions.incrementAndGet();
+      ((HttpServletResponse) response).setStatus(503);
+    });
+    assertEquals(503, failed.getStatus());
+    assertFalse(redis.containsKey(KEY));
+
+    MockHttpServletResponse retried = send(filter, created());
+    assertEquals(201, retried.getStatus());
+    assertEquals("{\"execution\":2}", retried.getContentAsString());
+    assertNull(retried.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertTrue(redis.containsKey(KEY));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {409, 429})
+  void releasesTheKeyAfterARetryableClientError(int status) throws Exception {
+    IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+    MockHttpServletResponse rejected = send(filter, (request, response) -> {
+      executions.incrementAndGet();
+      ((HttpServletResponse) response).sendError(status);
+    });
+    assertEquals(status, rejected.getStatus());
+    assertFalse(redis.containsKey(KEY));
+
+    MockHttpServletResponse retried = send(filter, created());
+    assertEquals(201, retried.getStatus());
+    assertNull(retried.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  void storesOtherClientErrors() throws Exception {
+    IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+    FilterChain badRequest = (request, response) -> {
+      executions.incrementAndGet();
+      ((HttpServletResponse) response).setStatus(422);
+    };
+    assertEquals(422, send(filter, badRequest).getStatus());
+
+    MockHttpServletResponse retry = send(filter, created());
+    assertEquals(422, retry.getStatus());
+    assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    assertEquals(1, executions.get());
+  }
+
+  @Test
+  void passesRequestsThroughWhenRedisIsDown() throws Exception {
+    doThrow(new RedisConnectionFailureException("Redis is down"))
+        .when(values).setIfAbsent(anyString(), anyString(), any(Duration.class));
+    IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+
+    assertEquals(201, send(filter, created()).getStatus());
+    assertEquals(201, send(filter, created()).getStatus());
+    assertEquals(2, executions.get());
+  }
+
+  @Test
+  void answersConflictWhenRedisFailsAfterTheKeyWasTaken() throws Exception {
+    redis.put(KEY, IdempotencyStore.PENDING);
+    doThrow(new RedisConnectionFailureException("Redis is down"))
+        .when(values).get(anyString());
+
+    MockHttpServletResponse conflict = send(filter(Duration.ofSeconds(5)), created());
+
+    assertEquals(409, conflict.getStatus());
+    assertEquals("1", conflict.getHeader("Retry-After"));
+    assertEquals(0, executions.get());
+  }
+
+  @Test
+  void rejectsOversizedKeys() throws Exception {
+    MockHttpServletRequest request = request("k".repeat(256));
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter(Duration.ofSeconds(5)).doFilter(request, response, created());
+
+    assertEquals(400, response.getStatus());
+    assertEquals(0, executions.get());
+  }
+
+  private IdempotencyFilter filter(Duration waitTimeout) {
+    return new IdempotencyFilter(redisTemplate, new ObjectMapper(), "test:idempotency:",
+        LEASE, TTL, waitTimeout, 1000);
+  }
+
+  private FilterChain created() {
+    return (request, response) -> {
+      int execution = executions.incrementAndGet();
+      HttpServletResponse http = (HttpServletResponse) response;
+      http.setStatus(201);
+      http.setContentType("application/json");
+      http.getWriter().write("{\"execution\":" + execution + "}");
+    };
+  }
+
+  private FilterChain blocking(CountDownLatch started, CountDownLatch finish) {
+    FilterChain created = created();
+    return (request, response) -> {
+      started.countDown();
+      try {
+        finish.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      created.doFilter(request, response);
+    };
+  }
+
+  private static MockHttpServletResponse send(IdempotencyFilter filter, FilterChain chain)
+      throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request("key-1"), response, chain);
+    return response;
+  }
+
+  private static CompletableFuture<MockHttpServletResponse> sendAsync(
+      IdempotencyFilter filter, FilterChain chain) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return send(filter, chain);
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+    });
+  }
+
+  private static MockHttpServletRequest request(String idempotencyKey) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/gifts");
+    request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+    return request;
+  }
+}
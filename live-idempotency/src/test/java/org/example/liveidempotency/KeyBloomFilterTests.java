@@ -0,0 +1,53 @@
+package org.example.liveidempotency;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class KeyBloomFilterTests {
+
+  @Test
+  void remembersEveryKeyOfTheLastTwoGenerations() {
+    KeyBloomFilter filter = new KeyBloomFilter(1000);
+    for (int i = 0; i < 2000; i++) {
+      filter.put("key-" + i);
+    }
+    for (int i = 0; i < 2000; i++) {
+      assertTrue(filter.mightContain("key-" + i), "key-" + i);
+    }
+  }
+
+  @Test
+  void forgetsKeysOnceTheirGenerationRotatesOut() {
+    KeyBloomFilter filter = new KeyBloomFilter(1000);
+    for (int i = 0; i < 4000; i++) {
+      filter.put("key-" + i);
+    }
+    int stillSeen = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (filter.mightContain("key-" + i)) {
+        stillSeen++;
+      }
+    }
+    // Only false positives remain, sized for about 1% per generation
+    assertTrue(stillSeen < 50, stillSeen + " of the oldest keys are still reported");
+    assertTrue(filter.mightContain("key-3999"));
+  }
+
+  @Test
+  void mostlyRejectsUnknownKeys() {
+    KeyBloomFilter filter = new KeyBloomFilter(10_000);
+    for (int i = 0; i < 10_000; i++) {
+      filter.put("key-" + i);
+    }
+    int falsePositives = 0;
+    for (int i = 0; i < 10_000; i++) {
+      if (filter.mightContain("other-" + i)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 300, falsePositives + " false positives");
+    assertFalse(new KeyBloomFilter(10).mightContain("key-0"));
+  }
+}
@@ -2,14 +2,16 @@ package org.example.liveplatform.config;
 
 import java.time.LocalDate;
 
-import org.example.liveplatform.dao.UserRepository;
-import org.example.liveplatform.dao.entity.User;
 import org.example.liveplatform.dao.entity.UserStatus;
+import org.example.liveplatform.dto.UserRequest;
+import org.example.liveplatform.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
 import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -18,14 +20,15 @@ public class DataSeeder {
 
   private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
 
-  private final UserRepository userRepository;
+  private final UserService userService;
 
   public DataSeeder(
-      UserRepository userRepository) {
-    this.userRepository = userRepository;
+      UserService userService) {
+    this.userService = userService;
   }
 
   @EventListener(ApplicationReadyEvent.class)
+  @Order(Ordered.HIGHEST_PRECEDENCE)
   public void onApplicationReady() {
     log.info("ApplicationReadyEvent received; seeding data if necessary");
     seedUsers();
@@ -39,16 +42,8 @@ public class DataSeeder {
 
 
   private void seedUser(String firstName, String lastName, String email, LocalDate dob, UserStatus status) {
-    userRepository.findByEmail(email).orElseGet(
-            () -> {
-              User user = new User();
-              user.setFirstName(firstName);
-              user.setLastName(lastName);
-              user.setEmail(email);
-              user.setDateOfBirth(dob);
-              user.setStatus(status);
-              return userRepository.save(user);
-            });
+    userService.findByEmail(email).orElseGet(
+            () -> userService.createUser(new UserRequest(firstName, lastName, email, dob, status)));
   }
 
 }
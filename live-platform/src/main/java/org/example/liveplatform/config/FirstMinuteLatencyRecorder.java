@@ -0,0 +1,111 @@
+package org.example.liveplatform.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Records the latency of real API requests during the first minute after the service became
+ * ready and logs the percentiles once, which is how the effect of {@link JitWarmup} is measured.
+ * Warm-up and actuator requests are not counted.
+ */
+@Component
+public class FirstMinuteLatencyRecorder extends OncePerRequestFilter {
+
+  private static final Logger log = LoggerFactory.getLogger(FirstMinuteLatencyRecorder.class);
+  private static final int MAX_SAMPLES = 200_000;
+
+  private final TaskScheduler taskScheduler;
+  private final long windowMs;
+  private final AtomicLongArray samples = new AtomicLongArray(MAX_SAMPLES);
+  private final AtomicInteger sampleCount = new AtomicInteger();
+  private volatile long windowStart;
+  private volatile long windowEnd;
+
+  public FirstMinuteLatencyRecorder(
+      TaskScheduler taskScheduler,
+      @Value("${live-platform.warmup.latency-window-ms}") long windowMs) {
+    this.taskScheduler = taskScheduler;
+    this.windowMs = windowMs;
+  }
+
+  @EventListener
+  public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+    if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || windowStart != 0) {
+      return;
+    }
+    long now = System.nanoTime();
+    windowEnd = now + TimeUnit.MILLISECONDS.toNanos(windowMs);
+    windowStart = now;
+    taskScheduler.schedule(this::report, Instant.now().plusMillis(windowMs));
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return windowStart == 0
+        || request.getHeader(JitWarmup.WARMUP_HEADER) != null
+        || !request.getRequestURI().startsWith("/api/");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    long started = System.nanoTime();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      if (started < windowEnd) {
+        int slot = sampleCount.getAndIncrement();
+        if (slot < MAX_SAMPLES) {
+          samples.set(slot, System.nanoTime() - started);
+        }
+      }
+    }
+  }
+
+  int recordedSamples() {
+    return Math.min(sampleCount.get(), MAX_SAMPLES);
+  }
+
+  private void report() {
+    int count = recordedSamples();
+    if (count == 0) {
+      log.info("First-minute latency: no API requests in the first {} ms", windowMs);
+      return;
+    }
+    long[] sorted = new long[count];
+    for (int i = 0; i < count; i++) {
+      sorted[i] = samples.get(i);
+    }
+    Arrays.sort(sorted);
+    log.info("First-minute latency over {} requests: p50={}us p90={}us p99={}us max={}us",
+        count,
+        micros(sorted, 0.50),
+        micros(sorted, 0.90),
+        micros(sorted, 0.99),
+        TimeUnit.NANOSECONDS.toMicros(sorted[count - 1]));
+  }
+
+  private static long micros(long[] sorted, double quantile) {
+    int index = (int) Math.ceil(quantile * sorted.length) - 1;
+    return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(index, 0)]);
+  }
+}
@@ -0,0 +1,199 @@
+package org.example.liveplatform.config;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.example.liveplatform.dto.UserChangeEvent;
+import org.example.liveplatform.dto.UserRequest;
+import org.example.liveplatform.dto.UserResponse;
+import org.example.liveplatform.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Replays a synthetic request mix against the service's own endpoints before it reports ready, so
+ * the controller -> service -> Hibernate -> Jackson path is compiled by C2 before real traffic
+ * arrives. Spring Boot only switches readiness to ACCEPTING_TRAFFIC after every
+ * {@link ApplicationReadyEvent} listener returned, which is why this runs synchronously and after
+ * {@link DataSeeder}. Write requests use throwaway users that are deleted again before the
+ * listener returns.
+ */
+@Component
+@ConditionalOnProperty(name = "live-platform.warmup.enabled", havingValue = "true")
+public class JitWarmup {
+
+  public static final String WARMUP_HEADER = "X-Warmup";
+
+  /** Every this many iterations one creates and updates a throwaway user. */
+  static final int WRITE_EVERY = 20;
+
+  private static final Logger log = LoggerFactory.getLogger(JitWarmup.class);
+
+  private final UserService userService;
+  private final int iterations;
+  private final long maxDurationMs;
+  private final int concurrency;
+
+  public JitWarmup(
+      UserService userService,
+      @Value("${live-platform.warmup.iterations}") int iterations,
+      @Value("${live-platform.warmup.max-duration-ms}") long maxDurationMs,
+      @Value("${live-platform.warmup.concurrency}") int concurrency) {
+    this.userService = userService;
+    this.iterations = iterations;
+    this.maxDurationMs = maxDurationMs;
+    this.concurrency = concurrency;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Order(Ordered.LOWEST_PRECEDENCE)
+  public void onApplicationReady(ApplicationReadyEvent event) throws InterruptedException {
+    if (!(event.getApplicationContext() instanceof WebServerApplicationContext web)
+        || web.getWebServer() == null) {
+      return;
+    }
+    warmUp(RestClient.builder().baseUrl("http://localhost:" + web.getWebServer().getPort()));
+  }
+
+  /**
+   * Sends the request mix through a client built from {@code builder}, then deletes the users the
+   * write requests created. Those users are named {@code warmup-*@warmup.invalid}.
+   */
+  void warmUp(RestClient.Builder builder) throws InterruptedException {
+    RestClient client = builder
+        .defaultHeader(WARMUP_HEADER, "true")
+        .defaultStatusHandler(status -> true, (request, response) -> { })
+        .build();
+    List<Long> userIds = userService.snapshotPage(null, 100).users().stream()
+        .map(UserChangeEvent::userId)
+        .toList();
+
+    log.info("JIT warm-up started: {} iterations, at most {} ms, {} threads",
+        iterations, maxDurationMs, concurrency);
+    long started = System.nanoTime();
+    long deadline = started + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+    AtomicInteger remaining = new AtomicInteger(iterations);
+    AtomicInteger failures = new AtomicInteger();
+    Queue<Long> created = new ConcurrentLinkedQueue<>();
+    ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+    for (int i = 0; i < concurrency; i++) {
+      workers.execute(() -> {
+        int iteration;
+        while (System.nanoTime() < deadline && (iteration = remaining.getAndDecrement()) > 0) {
+          try {
+            if (iteration % WRITE_EVERY == 0) {
+              createAndUpdate(client, created);
+            } else {
+              sendOne(client, userIds);
+            }
+          } catch (RuntimeException e) {
+            failures.incrementAndGet();
+          }
+        }
+      });
+    }
+    workers.shutdown();
+    if (!workers.awaitTermination(maxDurationMs + 5_000, TimeUnit.MILLISECONDS)) {
+      workers.shutdownNow();
+      // Let in-flight creates finish so the users they make are deleted below
+      workers.awaitTermination(5_000, TimeUnit.MILLISECONDS);
+    }
+    int leftOver = delete(created);
+
+    int done = iterations - Math.max(remaining.get(), 0);
+    log.info("JIT warm-up finished: {} requests ({} failed) in {} ms; deleted {} of {} users",
+        done, failures.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+        created.size() - leftOver, created.size());
+  }
+
+  /** Creates a throwaway user and updates it, so the write path is compiled too. */
+  private static void createAndUpdate(RestClient client, Queue<Long> created) {
+    String email = "warmup-" + UUID.randomUUID() + "@warmup.invalid";
+    ResponseEntity<UserResponse> response = client.post()
+        .uri("/api/users")
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(new UserRequest("Warm", "Up", email, null, null))
+        .retrieve()
+        .toEntity(UserResponse.class);
+    if (!response.getStatusCode().isSameCodeAs(HttpStatus.CREATED)
+        || response.getBody() == null
+        || response.getBody().id() == null) {
+      throw new IllegalStateException("Warm-up create returned " + response.getStatusCode());
+    }
+    long id = response.getBody().id();
+    created.add(id);
+    HttpStatusCode updated = client.put()
+        .uri("/api/users/{id}", id)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(new UserRequest("Warm", "Up again", email, null, null))
+        .retrieve()
+        .toBodilessEntity()
+        .getStatusCode();
+    if (!updated.isSameCodeAs(HttpStatus.OK)) {
+      throw new IllegalStateException("Warm-up update returned " + updated);
+    }
+  }
+
+  /** Deletes the warm-up users; returns how many could not be deleted. */
+  private int delete(Queue<Long> created) {
+    int failed = 0;
+    for (Long id : created) {
+      try {
+        userService.deleteUser(id);
+      } catch (RuntimeException e) {
+        failed++;
+        log.warn("Could not delete warm-up user {}", id, e);
+      }
+    }
+    return failed;
+  }
+
+  /** Mostly user reads, plus the not-found, validation-error and snapshot paths. */
+  private static void sendOne(RestClient client, List<Long> userIds) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int pick = random.nextInt(100);
+    if (pick < 80 && !userIds.isEmpty()) {
+      client.get()
+          .uri("/api/users/{id}", userIds.get(random.nextInt(userIds.size())))
+          .retrieve()
+          .toBodilessEntity();
+    } else if (pick < 90) {
+      client.get()
+          .uri("/api/users/{id}", Long.MAX_VALUE - random.nextInt(1_000))
+          .retrieve()
+          .toBodilessEntity();
+    } else if (pick < 95) {
+      client.post()
+          .uri("/api/users")
+          .contentType(MediaType.APPLICATION_JSON)
+          .body("{\"firstName\":\"\",\"lastName\":\"\",\"email\":\"not-an-email\"}")
+          .retrieve()
+          .toBodilessEntity();
+    } else {
+      client.get()
+          .uri("/api/users/snapshot?limit=20")
+          .retrieve()
+          .toBodilessEntity();
+    }
+  }
+}
@@ -1,12 +1,20 @@
 package org.example.liveplatform.controller;
 
-import java.util.List;
+import jakarta.validation.Valid;
 
+import org.example.liveplatform.dto.UserRequest;
 import org.example.liveplatform.dto.UserResponse;
+import org.example.liveplatform.dto.UserSnapshotPage;
 import org.example.liveplatform.service.UserService;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -25,5 +33,23 @@ public class UserController {
     return UserResponse.fromEntity(userService.getUser(id));
   }
 
+  @GetMapping("/snapshot")
+  public UserSnapshotPage snapshot(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "1000") int limit) {
+    return userService.snapshotPage(cursor, Math.min(limit, 5000));
+  }
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public UserResponse createUser(@Valid @RequestBody UserRequest request) {
+    return UserResponse.fromEntity(userService.createUser(request));
+  }
+
+  @PutMapping("/{id}")
+  public UserResponse updateUser(@PathVariable Long id, @Valid @RequestBody UserRequest request) {
+    return UserResponse.fromEntity(userService.updateUser(id, request));
+  }
+
 
 }
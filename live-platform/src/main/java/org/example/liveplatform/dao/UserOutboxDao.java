@@ -0,0 +1,72 @@
+package org.example.liveplatform.dao;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Collections;
+import java.util.List;
+
+import org.example.liveplatform.dto.UserChangeEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Outbox of user changes on the current shard. Rows are written in the same transaction as the
+ * user row and deleted once the relay has published them.
+ */
+@Repository
+public class UserOutboxDao {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+
+  public UserOutboxDao(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.objectMapper = objectMapper;
+  }
+
+  public void append(UserChangeEvent event) {
+    String payload;
+    try {
+      payload = objectMapper.writeValueAsString(event);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot serialize change of user " + event.userId(), e);
+    }
+    jdbcTemplate.update(
+        "INSERT INTO user_outbox (user_id, event_type, payload) VALUES (?, ?, ?)",
+        event.userId(), event.type(), payload);
+  }
+
+  /**
+   * Takes the per-shard relay lock without waiting. Only one relay publishes a shard's outbox at a
+   * time, otherwise two relays could publish a user's changes out of order.
+   */
+  public boolean tryLockRelay() {
+    Integer locked = jdbcTemplate.queryForObject(
+        "SELECT GET_LOCK('user_outbox_relay', 0)", Integer.class);
+    return locked != null && locked == 1;
+  }
+
+  public void unlockRelay() {
+    jdbcTemplate.queryForObject("SELECT RELEASE_LOCK('user_outbox_relay')", Integer.class);
+  }
+
+  public List<OutboxRow> findBatch(int limit) {
+    return jdbcTemplate.query(
+        "SELECT id, user_id, payload FROM user_outbox ORDER BY id LIMIT ?",
+        (rs, rowNum) -> new OutboxRow(rs.getLong(1), rs.getLong(2), rs.getString(3)),
+        limit);
+  }
+
+  public void delete(List<OutboxRow> rows) {
+    if (rows.isEmpty()) {
+      return;
+    }
+    String placeholders = String.join(",", Collections.nCopies(rows.size(), "?"));
+    jdbcTemplate.update(
+        "DELETE FROM user_outbox WHERE id IN (" + placeholders + ")",
+        rows.stream().map(OutboxRow::id).toArray());
+  }
+
+  public record OutboxRow(long id, long userId, String payload) {
+  }
+}
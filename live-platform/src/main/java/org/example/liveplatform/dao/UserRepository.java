@@ -1,11 +1,12 @@
 package org.example.liveplatform.dao;
 
-import java.util.Optional;
+import java.util.List;
 
 import org.example.liveplatform.dao.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
-  Optional<User> findByEmail(String email);
+  List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -4,21 +4,24 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import org.springframework.data.domain.Persistable;
 
 @Entity
 @Table(name = "users")
-public class User {
+public class User implements Persistable<Long> {
 
+  // Assigned by UserIdAllocator so that the id encodes the user's shard bucket.
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
 
   @Column(name = "first_name", nullable = false, length = 100)
@@ -43,6 +46,16 @@ public class User {
   @Column(name = "updated_at")
   private OffsetDateTime updatedAt;
 
+  // Incremented by Hibernate when it flushes an update; change events carry it so replicas can
+  // order them.
+  @Version
+  @Column(nullable = false)
+  private long version;
+
+  @Transient
+  private boolean persisted;
+
+  @Override
   public Long getId() {
     return id;
   }
@@ -107,6 +120,21 @@ public class User {
     this.updatedAt = updatedAt;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
+  @Override
+  public boolean isNew() {
+    return !persisted;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markPersisted() {
+    persisted = true;
+  }
+
   @PrePersist
   void onCreate() {
     var now = OffsetDateTime.now();
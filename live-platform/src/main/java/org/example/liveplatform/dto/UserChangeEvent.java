@@ -0,0 +1,47 @@
+package org.example.liveplatform.dto;
+
+import org.example.liveplatform.dao.entity.User;
+import org.example.liveplatform.dao.entity.UserStatus;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/**
+ * Full state of a user after a change. {@code version} is the row's JPA optimistic-lock version:
+ * Hibernate increments it when it flushes an update and the write only succeeds if the stored
+ * version still matches, so it orders changes regardless of which instance made them.
+ * Consumers keep the event with the highest version, so replaying an event twice or out of a
+ * snapshot is harmless. A {@code DELETED} event carries the last state and version of the user.
+ */
+public record UserChangeEvent(
+    long userId,
+    String type,
+    String firstName,
+    String lastName,
+    String email,
+    LocalDate dateOfBirth,
+    UserStatus status,
+    OffsetDateTime createdAt,
+    OffsetDateTime updatedAt,
+    long version
+) {
+
+  public static final String CREATED = "CREATED";
+  public static final String UPDATED = "UPDATED";
+  public static final String DELETED = "DELETED";
+  public static final String SNAPSHOT = "SNAPSHOT";
+
+  public static UserChangeEvent fromEntity(User user, String type) {
+    return new UserChangeEvent(
+        user.getId(),
+        type,
+        user.getFirstName(),
+        user.getLastName(),
+        user.getEmail(),
+        user.getDateOfBirth(),
+        user.getStatus(),
+        user.getCreatedAt(),
+        user.getUpdatedAt(),
+        user.getVersion());
+  }
+}
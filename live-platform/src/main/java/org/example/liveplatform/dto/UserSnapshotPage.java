@@ -0,0 +1,9 @@
+package org.example.liveplatform.dto;
+
+import java.util.List;
+
+public record UserSnapshotPage(
+    List<UserChangeEvent> users,
+    String nextCursor
+) {
+}
@@ -0,0 +1,186 @@
+package org.example.liveplatform.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Wraps connections so every statement execution is timed and its row count recorded in
+ * {@link StatementMetrics}. Query row counts are taken when the result set is closed, so they
+ * include every row the caller actually read.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+  private static final ClassLoader CLASS_LOADER = InstrumentedDataSource.class.getClassLoader();
+
+  private final StatementMetrics metrics;
+
+  public InstrumentedDataSource(DataSource target, StatementMetrics metrics) {
+    super(target);
+    this.metrics = metrics;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return wrapConnection(obtainTargetDataSource().getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return wrapConnection(obtainTargetDataSource().getConnection(username, password));
+  }
+
+  private Connection wrapConnection(Connection connection) {
+    return (Connection) Proxy.newProxyInstance(
+        CLASS_LOADER, new Class<?>[] {Connection.class}, new ConnectionHandler(connection));
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getTargetException();
+    }
+  }
+
+  private static Object equalsOrHashCode(Object proxy, Method method, Object[] args) {
+    return method.getName().equals("equals")
+        ? Boolean.valueOf(proxy == args[0])
+        : Integer.valueOf(System.identityHashCode(proxy));
+  }
+
+  private static boolean isEqualsOrHashCode(Method method) {
+    return (method.getName().equals("equals") && method.getParameterCount() == 1)
+        || (method.getName().equals("hashCode") && method.getParameterCount() == 0);
+  }
+
+  private final class ConnectionHandler implements InvocationHandler {
+
+    private final Connection target;
+
+    ConnectionHandler(Connection target) {
+      this.target = target;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (isEqualsOrHashCode(method)) {
+        return equalsOrHashCode(proxy, method, args);
+      }
+      Object result = InstrumentedDataSource.invoke(target, method, args);
+      String name = method.getName();
+      if (result instanceof Statement statement
+          && (name.startsWith("prepare") || name.equals("createStatement"))) {
+        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+            : statement instanceof PreparedStatement ? PreparedStatement.class
+            : Statement.class;
+        return Proxy.newProxyInstance(
+            CLASS_LOADER, new Class<?>[] {type}, new StatementHandler(statement, sql));
+      }
+      return result;
+    }
+  }
+
+  private final class StatementHandler implements InvocationHandler {
+
+    private final Statement target;
+    private final String preparedSql;
+    private String batchSql;
+
+    StatementHandler(Statement target, String preparedSql) {
+      this.target = target;
+      this.preparedSql = preparedSql;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (isEqualsOrHashCode(method)) {
+        return equalsOrHashCode(proxy, method, args);
+      }
+      String name = method.getName();
+      if (name.equals("addBatch") && args != null && args.length == 1) {
+        batchSql = (String) args[0];
+      }
+      if (!name.startsWith("execute")) {
+        Object result = InstrumentedDataSource.invoke(target, method, args);
+        if (name.equals("getResultSet") && result instanceof ResultSet resultSet) {
+          return wrapResultSet(resultSet, SqlFingerprint.of(sqlFor(args)));
+        }
+        return result;
+      }
+
+      long started = System.nanoTime();
+      Object result = InstrumentedDataSource.invoke(target, method, args);
+      String fingerprint = metrics.recordExecution(sqlFor(args), System.nanoTime() - started);
+      if (result instanceof ResultSet resultSet) {
+        return wrapResultSet(resultSet, fingerprint);
+      }
+      if (result instanceof Integer updated) {
+        metrics.recordRows(fingerprint, Math.max(updated, 0));
+      } else if (result instanceof Long updated) {
+        metrics.recordRows(fingerprint, Math.max(updated, 0));
+      } else if (result instanceof int[] batch) {
+        long rows = 0;
+        for (int count : batch) {
+          rows += Math.max(count, 0);
+        }
+        metrics.recordRows(fingerprint, rows);
+      }
+      return result;
+    }
+
+    private String sqlFor(Object[] args) {
+      if (args != null && args.length > 0 && args[0] instanceof String sql) {
+        return sql;
+      }
+      return preparedSql != null ? preparedSql : batchSql;
+    }
+
+    private ResultSet wrapResultSet(ResultSet resultSet, String fingerprint) {
+      return (ResultSet) Proxy.newProxyInstance(
+          CLASS_LOADER,
+          new Class<?>[] {ResultSet.class},
+          new ResultSetHandler(resultSet, fingerprint));
+    }
+  }
+
+  private final class ResultSetHandler implements InvocationHandler {
+
+    private final ResultSet target;
+    private final String fingerprint;
+    private long rows;
+    private boolean recorded;
+
+    ResultSetHandler(ResultSet target, String fingerprint) {
+      this.target = target;
+      this.fingerprint = fingerprint;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (isEqualsOrHashCode(method)) {
+        return equalsOrHashCode(proxy, method, args);
+      }
+      Object result = InstrumentedDataSource.invoke(target, method, args);
+      String name = method.getName();
+      if (name.equals("next") && Boolean.TRUE.equals(result)) {
+        rows++;
+      } else if (name.equals("close") && !recorded) {
+        recorded = true;
+        metrics.recordRows(fingerprint, rows);
+      }
+      return result;
+    }
+  }
+}
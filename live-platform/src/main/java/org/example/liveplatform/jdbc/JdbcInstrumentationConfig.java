@@ -0,0 +1,43 @@
+package org.example.liveplatform.jdbc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JdbcInstrumentationConfig {
+
+  /** A slow threshold of 0 or less disables slow statement logging. */
+  @Bean
+  public StatementMetrics statementMetrics(
+      MeterRegistry meterRegistry,
+      @Value("${live-platform.jdbc.slow-threshold-ms:500}") long slowThresholdMs,
+      @Value("${live-platform.jdbc.log-sample-rate:0}") double logSampleRate) {
+    long slowThresholdNanos =
+        slowThresholdMs > 0 ? TimeUnit.MILLISECONDS.toNanos(slowThresholdMs) : Long.MAX_VALUE;
+    return new StatementMetrics(meterRegistry, slowThresholdNanos, logSampleRate);
+  }
+
+  /** Wraps the application's primary data source, the one JPA and JdbcTemplate go through. */
+  @Bean
+  public static BeanPostProcessor instrumentedDataSourcePostProcessor(
+      ObjectProvider<StatementMetrics> statementMetrics) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if ("dataSource".equals(beanName)
+            && bean instanceof DataSource dataSource
+            && !(bean instanceof InstrumentedDataSource)) {
+          return new InstrumentedDataSource(dataSource, statementMetrics.getObject());
+        }
+        return bean;
+      }
+    };
+  }
+}
@@ -0,0 +1,135 @@
+package org.example.liveplatform.jdbc;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Counts the statements a unit of work runs on the current thread, e.g. one request or one
+ * transaction. A SELECT fingerprint repeated {@code nPlusOneThreshold} times inside one scope is
+ * reported as an N+1 suspect. Scopes nest; a statement is counted in every open scope.
+ *
+ * <p>Tests use it as a statement budget:
+ * <pre>{@code
+ * try (QueryScope scope = QueryScope.open("getUser")) {
+ *   userService.getUser(id);
+ *   scope.assertAtMost(2);
+ * }
+ * }</pre>
+ */
+public final class QueryScope implements AutoCloseable {
+
+  public static final int DEFAULT_N_PLUS_ONE_THRESHOLD = 10;
+
+  private static final Logger log = LoggerFactory.getLogger(QueryScope.class);
+  private static final ThreadLocal<ArrayDeque<QueryScope>> OPEN = new ThreadLocal<>();
+
+  private final String name;
+  private final int nPlusOneThreshold;
+  private final Map<String, Integer> counts = new HashMap<>();
+  private final Set<String> nPlusOneSuspects = new LinkedHashSet<>();
+  private int statementCount;
+
+  private QueryScope(String name, int nPlusOneThreshold) {
+    this.name = name;
+    this.nPlusOneThreshold = nPlusOneThreshold;
+  }
+
+  public static QueryScope open(String name) {
+    return open(name, DEFAULT_N_PLUS_ONE_THRESHOLD);
+  }
+
+  public static QueryScope open(String name, int nPlusOneThreshold) {
+    ArrayDeque<QueryScope> scopes = OPEN.get();
+    if (scopes == null) {
+      scopes = new ArrayDeque<>();
+      OPEN.set(scopes);
+    }
+    QueryScope scope = new QueryScope(name, nPlusOneThreshold);
+    scopes.push(scope);
+    return scope;
+  }
+
+  /** Counts a statement in every open scope; returns whether it just became an N+1 suspect. */
+  static boolean record(String fingerprint) {
+    ArrayDeque<QueryScope> scopes = OPEN.get();
+    if (scopes == null || scopes.isEmpty()) {
+      return false;
+    }
+    boolean select = SqlFingerprint.isSelect(fingerprint);
+    QueryScope suspectedIn = null;
+    for (QueryScope scope : scopes) {
+      if (scope.count(fingerprint, select) && suspectedIn == null) {
+        suspectedIn = scope;
+      }
+    }
+    if (suspectedIn != null) {
+      log.warn("Possible N+1 in {}: statement ran {} times: {}",
+          suspectedIn.name, suspectedIn.nPlusOneThreshold, fingerprint);
+      return true;
+    }
+    return false;
+  }
+
+  private boolean count(String fingerprint, boolean select) {
+    statementCount++;
+    int count = counts.merge(fingerprint, 1, Integer::sum);
+    return select && count == nPlusOneThreshold && nPlusOneSuspects.add(fingerprint);
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public int statementCount() {
+    return statementCount;
+  }
+
+  public int count(String sql) {
+    return counts.getOrDefault(SqlFingerprint.of(sql), 0);
+  }
+
+  public Map<String, Integer> countsByStatement() {
+    return Collections.unmodifiableMap(counts);
+  }
+
+  public Set<String> nPlusOneSuspects() {
+    return Collections.unmodifiableSet(nPlusOneSuspects);
+  }
+
+  /** Fails with a per-statement breakdown when more than {@code budget} statements ran. */
+  public void assertAtMost(int budget) {
+    if (statementCount > budget) {
+      StringBuilder message = new StringBuilder()
+          .append(name).append(" ran ").append(statementCount)
+          .append(" statements, budget is ").append(budget).append(':');
+      counts.forEach(
+          (sql, count) -> message.append("\n  ").append(count).append(" x ").append(sql));
+      throw new AssertionError(message.toString());
+    }
+  }
+
+  @Override
+  public void close() {
+    ArrayDeque<QueryScope> scopes = OPEN.get();
+    if (scopes == null) {
+      return;
+    }
+    for (Iterator<QueryScope> it = scopes.iterator(); it.hasNext(); ) {
+      if (it.next() == this) {
+        it.remove();
+        break;
+      }
+    }
+    if (scopes.isEmpty()) {
+      OPEN.remove();
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package org.example.liveplatform.jdbc;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/** Opens a {@link QueryScope} per request so N+1 patterns are detected across a whole request. */
+@Component
+public class QueryScopeFilter extends OncePerRequestFilter {
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    try (QueryScope scope = QueryScope.open(request.getMethod() + " " + request.getRequestURI())) {
+      filterChain.doFilter(request, response);
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package org.example.liveplatform.jdbc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes SQL so that statements differing only in literals, IN-list length or whitespace share
+ * one fingerprint. Results are cached because the same prepared SQL strings come by constantly.
+ */
+public final class SqlFingerprint {
+
+  private static final int CACHE_LIMIT = 10_000;
+  private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+  private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+  private static final Pattern IN_LIST =
+      Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+
+  private SqlFingerprint() {
+  }
+
+  public static String of(String sql) {
+    if (sql == null) {
+      return "?";
+    }
+    String cached = CACHE.get(sql);
+    if (cached != null) {
+      return cached;
+    }
+    String fingerprint = normalize(sql);
+    if (CACHE.size() < CACHE_LIMIT) {
+      CACHE.put(sql, fingerprint);
+    }
+    return fingerprint;
+  }
+
+  static String normalize(String sql) {
+    String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+    normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+    normalized = IN_LIST.matcher(normalized).replaceAll("in (?)");
+    return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+  }
+
+  public static boolean isSelect(String fingerprint) {
+    return fingerprint.regionMatches(true, 0, "select", 0, 6);
+  }
+}
@@ -0,0 +1,95 @@
+package org.example.liveplatform.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-fingerprint latency histogram ({@code jdbc.statement}) and row count distribution
+ * ({@code jdbc.statement.rows}). The number of distinct fingerprints tagged is capped so a bug
+ * that inlines literals cannot blow up the registry.
+ *
+ * <p>Statements are logged by fingerprint, never with their literals: every statement slower than
+ * {@code slowThresholdNanos} at WARN, and a random {@code logSampleRate} share of the rest at INFO.
+ * The service logs statements slower than 500 ms by default and samples none, so only the rare
+ * slow statement costs a log line; {@link #StatementMetrics(MeterRegistry)} turns both off.
+ */
+public class StatementMetrics {
+
+  static final int MAX_TAGGED_STATEMENTS = 500;
+  static final String OTHER = "other";
+
+  private static final Logger log = LoggerFactory.getLogger(StatementMetrics.class);
+
+  private final MeterRegistry registry;
+  private final Map<String, StatementMeters> meters = new ConcurrentHashMap<>();
+  private final Counter nPlusOneSuspects;
+  private final long slowThresholdNanos;
+  private final double logSampleRate;
+
+  public StatementMetrics(MeterRegistry registry) {
+    this(registry, Long.MAX_VALUE, 0);
+  }
+
+  public StatementMetrics(MeterRegistry registry, long slowThresholdNanos, double logSampleRate) {
+    this.registry = registry;
+    this.slowThresholdNanos = slowThresholdNanos;
+    this.logSampleRate = logSampleRate;
+    this.nPlusOneSuspects = Counter.builder("jdbc.n_plus_one.suspects")
+        .description("Statements repeated often enough in one request or transaction to be N+1")
+        .register(registry);
+  }
+
+  /** Records one execution; returns the fingerprint so the caller can attach row counts later. */
+  public String recordExecution(String sql, long elapsedNanos) {
+    String fingerprint = SqlFingerprint.of(sql);
+    metersFor(fingerprint).latency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    if (QueryScope.record(fingerprint)) {
+      nPlusOneSuspects.increment();
+    }
+    if (elapsedNanos >= slowThresholdNanos) {
+      log.warn("Slow statement took {} ms: {}",
+          TimeUnit.NANOSECONDS.toMillis(elapsedNanos), fingerprint);
+    } else if (logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+      log.info("Sampled statement took {} us: {}",
+          TimeUnit.NANOSECONDS.toMicros(elapsedNanos), fingerprint);
+    }
+    return fingerprint;
+  }
+
+  public void recordRows(String fingerprint, long rows) {
+    metersFor(fingerprint).rows.record(rows);
+  }
+
+  private StatementMeters metersFor(String fingerprint) {
+    StatementMeters existing = meters.get(fingerprint);
+    if (existing != null) {
+      return existing;
+    }
+    String tag = meters.size() < MAX_TAGGED_STATEMENTS ? fingerprint : OTHER;
+    return meters.computeIfAbsent(tag, this::register);
+  }
+
+  private StatementMeters register(String statement) {
+    Timer latency = Timer.builder("jdbc.statement")
+        .tag("statement", statement)
+        .publishPercentileHistogram()
+        .register(registry);
+    DistributionSummary rows = DistributionSummary.builder("jdbc.statement.rows")
+        .tag("statement", statement)
+        .publishPercentileHistogram()
+        .register(registry);
+    return new StatementMeters(latency, rows);
+  }
+
+  private record StatementMeters(Timer latency, DistributionSummary rows) {
+  }
+}
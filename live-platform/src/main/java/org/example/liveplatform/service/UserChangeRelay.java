@@ -0,0 +1,113 @@
+package org.example.liveplatform.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.example.liveplatform.dao.UserOutboxDao;
+import org.example.liveplatform.dao.UserOutboxDao.OutboxRow;
+import org.example.liveplatform.sharding.ShardDataSources;
+import org.example.liveplatform.sharding.ShardTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Publishes the user outbox of every shard to one Redis stream. Each batch is sent as a single
+ * pipeline and only deleted from the outbox after Redis accepted it, so delivery is at least once.
+ * Batches of a shard are published strictly in outbox order. A user's unpublished changes are only
+ * ever on one shard: when a bucket moves, the resharder waits for its outbox rows on the source to
+ * be published before writes go to the target. Together this keeps the changes of a user in order
+ * on the stream.
+ */
+@Component
+public class UserChangeRelay {
+
+  private static final Logger log = LoggerFactory.getLogger(UserChangeRelay.class);
+
+  private final UserOutboxDao userOutboxDao;
+  private final ShardTemplate shardTemplate;
+  private final ShardDataSources shardDataSources;
+  private final StringRedisTemplate redisTemplate;
+  private final TransactionTemplate relayTransaction;
+  private final byte[] streamKey;
+  private final XAddOptions addOptions;
+  private final int batchSize;
+
+  public UserChangeRelay(
+      UserOutboxDao userOutboxDao,
+      ShardTemplate shardTemplate,
+      ShardDataSources shardDataSources,
+      StringRedisTemplate redisTemplate,
+      PlatformTransactionManager transactionManager,
+      @Value("${live-platform.user-changes.stream-key}") String streamKey,
+      @Value("${live-platform.user-changes.stream-max-len}") long streamMaxLen,
+      @Value("${live-platform.user-changes.relay-batch-size}") int batchSize) {
+    this.userOutboxDao = userOutboxDao;
+    this.shardTemplate = shardTemplate;
+    this.shardDataSources = shardDataSources;
+    this.redisTemplate = redisTemplate;
+    this.relayTransaction = new TransactionTemplate(transactionManager);
+    // Sees every committed outbox row on each batch and takes no gap locks on the outbox.
+    this.relayTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    this.streamKey = streamKey.getBytes(StandardCharsets.UTF_8);
+    this.addOptions = XAddOptions.maxlen(streamMaxLen).approximateTrimming(true);
+    this.batchSize = batchSize;
+  }
+
+  @Scheduled(fixedDelayString = "${live-platform.user-changes.relay-interval-ms}")
+  public void relay() {
+    for (int shard = 0; shard < shardDataSources.size(); shard++) {
+      try {
+        int published;
+        do {
+          published = shardTemplate.execute(shard, relayTransaction, this::publishBatch);
+        } while (published == batchSize);
+      } catch (RuntimeException e) {
+        log.warn("Failed to relay user changes of shard {}", shard, e);
+      }
+    }
+  }
+
+  private int publishBatch() {
+    if (!userOutboxDao.tryLockRelay()) {
+      return 0;
+    }
+    try {
+      return publishBatchLocked();
+    } finally {
+      userOutboxDao.unlockRelay();
+    }
+  }
+
+  private int publishBatchLocked() {
+    List<OutboxRow> rows = userOutboxDao.findBatch(batchSize);
+    if (rows.isEmpty()) {
+      return 0;
+    }
+    redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+      for (OutboxRow row : rows) {
+        connection.streamCommands().xAdd(
+            StreamRecords.rawBytes(Map.of(
+                    "userId".getBytes(StandardCharsets.UTF_8),
+                    Long.toString(row.userId()).getBytes(StandardCharsets.UTF_8),
+                    "payload".getBytes(StandardCharsets.UTF_8),
+                    row.payload().getBytes(StandardCharsets.UTF_8)))
+                .withStreamKey(streamKey),
+            addOptions);
+      }
+      return null;
+    });
+    userOutboxDao.delete(rows);
+    return rows.size();
+  }
+}
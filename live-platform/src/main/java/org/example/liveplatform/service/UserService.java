@@ -1,34 +1,245 @@
 package org.example.liveplatform.service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
+import org.example.liveplatform.dao.UserOutboxDao;
 import org.example.liveplatform.dao.UserRepository;
 import org.example.liveplatform.dao.entity.User;
 import org.example.liveplatform.dao.entity.UserStatus;
+import org.example.liveplatform.dto.UserChangeEvent;
 import org.example.liveplatform.dto.UserRequest;
+import org.example.liveplatform.dto.UserSnapshotPage;
+import org.example.liveplatform.sharding.BucketFence;
+import org.example.liveplatform.sharding.ShardDataSources;
+import org.example.liveplatform.sharding.ShardRouter;
+import org.example.liveplatform.sharding.ShardTemplate;
+import org.example.liveplatform.sharding.UserDirectory;
+import org.example.liveplatform.sharding.UserIdAllocator;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+/**
+ * Users are spread over shards by id. Every call picks the user's shard first and then runs its
+ * own transaction there through {@link ShardTemplate}, so this service is not
+ * {@code @Transactional} itself.
+ */
 @Service
-@Transactional(readOnly = true)
 public class UserService {
 
   private final UserRepository userRepository;
+  private final ShardTemplate shardTemplate;
+  private final ShardRouter shardRouter;
+  private final ShardDataSources shardDataSources;
+  private final UserDirectory userDirectory;
+  private final UserIdAllocator userIdAllocator;
+  private final UserOutboxDao userOutboxDao;
+  private final BucketFence bucketFence;
 
-  public UserService(UserRepository userRepository) {
+  public UserService(
+      UserRepository userRepository,
+      ShardTemplate shardTemplate,
+      ShardRouter shardRouter,
+      ShardDataSources shardDataSources,
+      UserDirectory userDirectory,
+      UserIdAllocator userIdAllocator,
+      UserOutboxDao userOutboxDao,
+      BucketFence bucketFence) {
     this.userRepository = userRepository;
+    this.shardTemplate = shardTemplate;
+    this.shardRouter = shardRouter;
+    this.shardDataSources = shardDataSources;
+    this.userDirectory = userDirectory;
+    this.userIdAllocator = userIdAllocator;
+    this.userOutboxDao = userOutboxDao;
+    this.bucketFence = bucketFence;
   }
 
   public List<User> getAllUsers() {
-    return userRepository.findAll();
+    List<User> users = new ArrayList<>();
+    for (int shard = 0; shard < shardDataSources.size(); shard++) {
+      int current = shard;
+      // A bucket being moved exists on two shards for a while; only keep the routed copy.
+      shardTemplate.read(shard, userRepository::findAll).stream()
+          .filter(user -> shardRouter.shardForUser(user.getId()) == current)
+          .forEach(users::add);
+    }
+    return users;
   }
 
   public User getUser(Long id) {
-    return userRepository
-        .findById(id)
+    return shardTemplate
+        .read(shardRouter.shardForUser(id), () -> userRepository.findById(id))
         .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
   }
 
+  public Optional<User> findByEmail(String email) {
+    return userDirectory.findUserId(email).flatMap(
+        id -> shardTemplate.read(shardRouter.shardForUser(id), () -> userRepository.findById(id)));
+  }
+
+  /**
+   * One page of a full user snapshot, used by replicas to bootstrap before following the change
+   * stream. The cursor is {@code "<shard>:<last id>"}; a {@code null} next cursor ends the
+   * snapshot.
+   */
+  public UserSnapshotPage snapshotPage(String cursor, int limit) {
+    int shard = 0;
+    long afterId = 0;
+    if (cursor != null && !cursor.isBlank()) {
+      try {
+        int separator = cursor.indexOf(':');
+        shard = Integer.parseInt(cursor.substring(0, separator));
+        afterId = Long.parseLong(cursor.substring(separator + 1));
+      } catch (RuntimeException e) {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid snapshot cursor");
+      }
+    }
+    if (shard < 0 || shard >= shardDataSources.size() || limit <= 0) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid snapshot cursor");
+    }
+    int current = shard;
+    long from = afterId;
+    List<User> users = shardTemplate.read(
+        shard, () -> userRepository.findByIdGreaterThanOrderByIdAsc(from, Limit.of(limit)));
+    List<UserChangeEvent> events = users.stream()
+        .filter(user -> shardRouter.shardForUser(user.getId()) == current)
+        .map(user -> UserChangeEvent.fromEntity(user, UserChangeEvent.SNAPSHOT))
+        .toList();
+    String nextCursor;
+    if (users.size() == limit) {
+      nextCursor = shard + ":" + users.get(users.size() - 1).getId();
+    } else if (shard + 1 < shardDataSources.size()) {
+      nextCursor = (shard + 1) + ":0";
+    } else {
+      nextCursor = null;
+    }
+    return new UserSnapshotPage(events, nextCursor);
+  }
+
+  public User createUser(UserRequest request) {
+    long id;
+    do {
+      id = userIdAllocator.nextId();
+    } while (shardRouter.isFrozen(id));
+    long userId = id;
+
+    claimEmail(request.email(), userId);
+    try {
+      return shardTemplate.write(shardRouter.shardForUser(userId), () -> {
+        enterWrite(userId);
+        User user = new User();
+        user.setId(userId);
+        apply(user, request);
+        User saved = userRepository.saveAndFlush(user);
+        userOutboxDao.append(UserChangeEvent.fromEntity(saved, UserChangeEvent.CREATED));
+        return saved;
+      });
+    } catch (RuntimeException e) {
+      userDirectory.release(request.email(), userId);
+      throw e;
+    }
+  }
+
+  public User updateUser(Long id, UserRequest request) {
+    if (shardRouter.isFrozen(id)) {
+      throw movingUser();
+    }
+    String previousEmail = getUser(id).getEmail();
+    boolean emailChanged = !previousEmail.equals(request.email());
+    if (emailChanged) {
+      claimEmail(request.email(), id);
+    }
+    User updated;
+    try {
+      updated = shardTemplate.write(shardRouter.shardForUser(id), () -> {
+        enterWrite(id);
+        User user = userRepository
+            .findById(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        apply(user, request);
+        User saved = userRepository.saveAndFlush(user);
+        userOutboxDao.append(UserChangeEvent.fromEntity(saved, UserChangeEvent.UPDATED));
+        return saved;
+      });
+    } catch (RuntimeException e) {
+      if (emailChanged) {
+        userDirectory.release(request.email(), id);
+      }
+      if (e instanceof ObjectOptimisticLockingFailureException) {
+        throw new ResponseStatusException(
+            HttpStatus.CONFLICT, "User was changed concurrently, retry shortly", e);
+      }
+      throw e;
+    }
+    if (emailChanged) {
+      userDirectory.release(previousEmail, id);
+    }
+    return updated;
+  }
+
+  /**
+   * Deletes the user and frees their email. Not exposed over HTTP; the JIT warm-up uses it to
+   * remove the users it created.
+   */
+  public void deleteUser(Long id) {
+    if (shardRouter.isFrozen(id)) {
+      throw movingUser();
+    }
+    User deleted;
+    try {
+      deleted = shardTemplate.write(shardRouter.shardForUser(id), () -> {
+        enterWrite(id);
+        User user = userRepository
+            .findById(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found"));
+        userRepository.delete(user);
+        userRepository.flush();
+        userOutboxDao.append(UserChangeEvent.fromEntity(user, UserChangeEvent.DELETED));
+        return user;
+      });
+    } catch (ObjectOptimisticLockingFailureException e) {
+      throw new ResponseStatusException(
+          HttpStatus.CONFLICT, "User was changed concurrently, retry shortly", e);
+    }
+    userDirectory.release(deleted.getEmail(), id);
+  }
+
+  /** First statement of every user write; see {@link BucketFence}. */
+  private void enterWrite(long userId) {
+    if (!bucketFence.enterWrite(userId)) {
+      throw movingUser();
+    }
+  }
+
+  private static ResponseStatusException movingUser() {
+    return new ResponseStatusException(
+        HttpStatus.SERVICE_UNAVAILABLE, "User is being moved to another shard, retry shortly");
+  }
+
+  private void claimEmail(String email, long userId) {
+    try {
+      userDirectory.register(email, userId);
+    } catch (DuplicateKeyException e) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, "Email is already registered");
+    }
+  }
+
+  private static void apply(User user, UserRequest request) {
+    user.setFirstName(request.firstName());
+    user.setLastName(request.lastName());
+    user.setEmail(request.email());
+    user.setDateOfBirth(request.dateOfBirth());
+    if (request.status() != null) {
+      user.setStatus(request.status());
+    } else if (user.getStatus() == null) {
+      user.setStatus(UserStatus.ACTIVE);
+    }
+  }
+
 }
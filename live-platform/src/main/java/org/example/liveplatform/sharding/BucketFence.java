@@ -0,0 +1,35 @@
+package org.example.liveplatform.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Per-shard write fence of a bucket, in {@code shard_bucket_fences} on every shard. Writers take a
+ * shared lock on the bucket's fence row as the first statement of their transaction, so the
+ * {@link Resharder} setting the fence waits for every in-flight write to the bucket on that shard
+ * to commit, and no write can commit there after it. The frozen flag in the directory only makes
+ * writers fail fast; this is what makes the final copy of a moving bucket complete.
+ */
+public class BucketFence {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public BucketFence(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Must run inside the write transaction on the user's shard. Returns false when the bucket is
+   * fenced there, i.e. being moved away or already moved.
+   */
+  public boolean enterWrite(long userId) {
+    Boolean frozen = jdbcTemplate.query(
+        "SELECT frozen FROM shard_bucket_fences WHERE bucket = ? FOR SHARE",
+        rs -> rs.next() ? rs.getBoolean(1) : null,
+        UserIds.bucketOf(userId));
+    return !Boolean.TRUE.equals(frozen);
+  }
+
+  static void set(JdbcTemplate shard, int bucket, boolean frozen) {
+    shard.update("UPDATE shard_bucket_fences SET frozen = ? WHERE bucket = ?", frozen, bucket);
+  }
+}
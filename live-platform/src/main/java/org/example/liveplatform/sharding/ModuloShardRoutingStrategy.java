@@ -0,0 +1,15 @@
+package org.example.liveplatform.sharding;
+
+public class ModuloShardRoutingStrategy implements ShardRoutingStrategy {
+
+  private final int shardCount;
+
+  public ModuloShardRoutingStrategy(int shardCount) {
+    this.shardCount = shardCount;
+  }
+
+  @Override
+  public int shardForBucket(int bucket) {
+    return bucket % shardCount;
+  }
+}
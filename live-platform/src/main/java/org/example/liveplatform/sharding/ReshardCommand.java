@@ -0,0 +1,51 @@
+package org.example.liveplatform.sharding;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Runs the {@link Resharder} once and exits, e.g.
+ * {@code java -jar app.jar --spring.main.web-application-type=none
+ * --live-platform.sharding.reshard.buckets=3,7 --live-platform.sharding.reshard.target-shard=1}.
+ */
+public class ReshardCommand implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(ReshardCommand.class);
+
+  private final Resharder resharder;
+  private final ConfigurableApplicationContext context;
+  private final List<Integer> buckets;
+  private final int targetShard;
+
+  public ReshardCommand(
+      Resharder resharder,
+      ConfigurableApplicationContext context,
+      List<Integer> buckets,
+      int targetShard) {
+    this.resharder = resharder;
+    this.context = context;
+    this.buckets = buckets;
+    this.targetShard = targetShard;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    int exitCode = 0;
+    try {
+      for (Integer bucket : buckets) {
+        resharder.moveBucket(bucket, targetShard);
+      }
+    } catch (RuntimeException e) {
+      log.error("Resharding to shard {} failed", targetShard, e);
+      exitCode = 1;
+    }
+    int code = exitCode;
+    System.exit(SpringApplication.exit(context, () -> code));
+  }
+}
@@ -0,0 +1,159 @@
+package org.example.liveplatform.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Moves buckets of users between shards while the service keeps running:
+ * <ol>
+ *   <li>bulk copy the bucket to the target shard, with writes still going to the source;</li>
+ *   <li>freeze the bucket so writers get a 503 and wait until every instance has seen it;</li>
+ *   <li>set the {@link BucketFence} on the source, which waits for writes still in flight to
+ *       commit and rejects any later ones;</li>
+ *   <li>copy the whole bucket again, which now sees every committed write;</li>
+ *   <li>wait for the relay to publish the bucket's outbox rows on the source, so its changes
+ *       reach the stream before any change written on the target;</li>
+ *   <li>point the bucket at the target and unfreeze it in one update;</li>
+ *   <li>once every instance routes to the target, delete the bucket from the source.</li>
+ * </ol>
+ * Reads keep being served from the source until step 6. The source fence stays set after the move
+ * so a writer with stale routing cannot write to the old copy.
+ */
+public class Resharder {
+
+  private static final Logger log = LoggerFactory.getLogger(Resharder.class);
+
+  private static final String COLUMNS =
+      "id, first_name, last_name, email, date_of_birth, status, created_at, updated_at, version";
+  private static final String UPSERT =
+      "INSERT INTO users (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) AS incoming"
+          + " ON DUPLICATE KEY UPDATE first_name = incoming.first_name,"
+          + " last_name = incoming.last_name, email = incoming.email,"
+          + " date_of_birth = incoming.date_of_birth, status = incoming.status,"
+          + " updated_at = incoming.updated_at, version = incoming.version";
+  private static final int BATCH_SIZE = 1000;
+  private static final long OUTBOX_DRAIN_TIMEOUT_MS = 60_000;
+  private static final long OUTBOX_POLL_MS = 100;
+
+  private final ShardDataSources shards;
+  private final ShardRouter router;
+  private final JdbcTemplate directory;
+  private final long assignmentRefreshMs;
+
+  public Resharder(ShardDataSources shards, ShardRouter router, long assignmentRefreshMs) {
+    this.shards = shards;
+    this.router = router;
+    this.directory = new JdbcTemplate(shards.get(ShardRouter.DIRECTORY_SHARD));
+    this.assignmentRefreshMs = assignmentRefreshMs;
+  }
+
+  public void moveBucket(int bucket, int targetShard) {
+    if (bucket < 0 || bucket >= UserIds.BUCKETS) {
+      throw new IllegalArgumentException("Unknown bucket " + bucket);
+    }
+    if (targetShard < 0 || targetShard >= shards.size()) {
+      throw new IllegalArgumentException("Unknown shard " + targetShard);
+    }
+    // Seeds shard_bucket_assignments on first use
+    router.shardForBucket(bucket);
+    int sourceShard = directory.queryForObject(
+        "SELECT shard FROM shard_bucket_assignments WHERE bucket = ?", Integer.class, bucket);
+    if (sourceShard == targetShard) {
+      log.info("Bucket {} already lives on shard {}", bucket, targetShard);
+      return;
+    }
+    JdbcTemplate source = new JdbcTemplate(shards.get(sourceShard));
+    JdbcTemplate target = new JdbcTemplate(shards.get(targetShard));
+
+    BucketFence.set(target, bucket, false);
+    int copied = copy(bucket, source, target);
+    log.info("Bucket {}: copied {} users from shard {} to shard {}",
+        bucket, copied, sourceShard, targetShard);
+
+    setFrozen(bucket, true);
+    try {
+      awaitAssignmentRefresh();
+      BucketFence.set(source, bucket, true);
+      int recopied = copy(bucket, source, target);
+      awaitOutboxRelayed(bucket, source);
+      directory.update(
+          "UPDATE shard_bucket_assignments SET shard = ?, frozen = FALSE WHERE bucket = ?",
+          targetShard, bucket);
+      log.info("Bucket {}: recopied {} users with writes fenced and switched to shard {}",
+          bucket, recopied, targetShard);
+    } catch (RuntimeException e) {
+      BucketFence.set(source, bucket, false);
+      setFrozen(bucket, false);
+      throw e;
+    }
+
+    awaitAssignmentRefresh();
+    int deleted = 0;
+    int batch;
+    do {
+      batch = source.update("DELETE FROM users WHERE " + UserIds.bucketPredicate("id", bucket)
+          + " LIMIT " + BATCH_SIZE);
+      deleted += batch;
+    } while (batch == BATCH_SIZE);
+    log.info("Bucket {}: removed {} users from shard {}", bucket, deleted, sourceShard);
+  }
+
+  private int copy(int bucket, JdbcTemplate source, JdbcTemplate target) {
+    String sql = "SELECT " + COLUMNS + " FROM users WHERE " + UserIds.bucketPredicate("id", bucket)
+        + " AND id > ? ORDER BY id LIMIT " + BATCH_SIZE;
+    long lastId = -1;
+    int copied = 0;
+    while (true) {
+      List<Object[]> rows = source.query(sql, (rs, rowNum) -> new Object[] {
+          rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+          rs.getObject(5), rs.getString(6), rs.getObject(7), rs.getObject(8), rs.getLong(9)},
+          lastId);
+      if (rows.isEmpty()) {
+        return copied;
+      }
+      target.batchUpdate(UPSERT, new ArrayList<>(rows));
+      lastId = (Long) rows.get(rows.size() - 1)[0];
+      copied += rows.size();
+    }
+  }
+
+  private void setFrozen(int bucket, boolean frozen) {
+    directory.update(
+        "UPDATE shard_bucket_assignments SET frozen = ? WHERE bucket = ?", frozen, bucket);
+  }
+
+  private void awaitAssignmentRefresh() {
+    sleep(assignmentRefreshMs * 2);
+  }
+
+  /**
+   * Waits until the source outbox holds no change of the bucket. Writes to the bucket are fenced,
+   * so no new rows appear while this runs.
+   */
+  private void awaitOutboxRelayed(int bucket, JdbcTemplate source) {
+    String pending = "SELECT COUNT(*) FROM user_outbox WHERE "
+        + UserIds.bucketPredicate("user_id", bucket);
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(OUTBOX_DRAIN_TIMEOUT_MS);
+    while (source.queryForObject(pending, Integer.class) > 0) {
+      if (System.nanoTime() - deadline > 0) {
+        throw new IllegalStateException("Outbox of bucket " + bucket + " was not relayed within "
+            + OUTBOX_DRAIN_TIMEOUT_MS + " ms");
+      }
+      sleep(OUTBOX_POLL_MS);
+    }
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while moving a bucket", e);
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package org.example.liveplatform.sharding;
+
+/** The shard the current thread's next connection is routed to. */
+public final class ShardContext {
+
+  private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+  private ShardContext() {
+  }
+
+  public static Integer current() {
+    return CURRENT.get();
+  }
+
+  static void set(Integer shard) {
+    if (shard == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(shard);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package org.example.liveplatform.sharding;
+
+import java.util.List;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+
+/** Direct connections to every shard, indexed by shard number. */
+public class ShardDataSources implements DisposableBean {
+
+  private final List<DataSource> dataSources;
+
+  public ShardDataSources(List<DataSource> dataSources) {
+    this.dataSources = List.copyOf(dataSources);
+  }
+
+  public int size() {
+    return dataSources.size();
+  }
+
+  public DataSource get(int shard) {
+    return dataSources.get(shard);
+  }
+
+  public List<DataSource> all() {
+    return dataSources;
+  }
+
+  @Override
+  public void destroy() throws Exception {
+    for (DataSource dataSource : dataSources) {
+      if (dataSource instanceof AutoCloseable closeable) {
+        closeable.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package org.example.liveplatform.sharding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Resolves the physical shard of a bucket from the {@code shard_bucket_assignments} table on the
+ * directory shard. The table is seeded from the {@link ShardRoutingStrategy} the first time it is
+ * read, so adding shards later never silently remaps buckets that already hold users; buckets are
+ * only moved by the {@link Resharder}.
+ */
+public class ShardRouter {
+
+  public static final int DIRECTORY_SHARD = 0;
+
+  private static final Logger log = LoggerFactory.getLogger(ShardRouter.class);
+
+  private final ShardRoutingStrategy strategy;
+  private final JdbcTemplate directory;
+  private volatile Assignments assignments;
+
+  public ShardRouter(ShardRoutingStrategy strategy, DataSource directoryDataSource) {
+    this.strategy = strategy;
+    this.directory = new JdbcTemplate(directoryDataSource);
+  }
+
+  public int shardForUser(long userId) {
+    return shardForBucket(UserIds.bucketOf(userId));
+  }
+
+  public int shardForBucket(int bucket) {
+    return assignments().shards[bucket];
+  }
+
+  /** Whether writes to the user are paused because its bucket is being moved. */
+  public boolean isFrozen(long userId) {
+    return assignments().frozen[UserIds.bucketOf(userId)];
+  }
+
+  @Scheduled(
+      initialDelayString = "${live-platform.sharding.assignment-refresh-ms:5000}",
+      fixedDelayString = "${live-platform.sharding.assignment-refresh-ms:5000}")
+  public void refresh() {
+    try {
+      assignments = load();
+    } catch (RuntimeException e) {
+      log.warn("Failed to refresh shard bucket assignments; keeping the previous ones", e);
+    }
+  }
+
+  private Assignments assignments() {
+    Assignments current = assignments;
+    if (current == null) {
+      synchronized (this) {
+        current = assignments;
+        if (current == null) {
+          current = load();
+          assignments = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  private Assignments load() {
+    int[] shards = new int[UserIds.BUCKETS];
+    boolean[] frozen = new boolean[UserIds.BUCKETS];
+    Arrays.fill(shards, -1);
+    directory.query("SELECT bucket, shard, frozen FROM shard_bucket_assignments", rs -> {
+      int bucket = rs.getInt(1);
+      shards[bucket] = rs.getInt(2);
+      frozen[bucket] = rs.getBoolean(3);
+    });
+    List<Object[]> missing = new ArrayList<>();
+    for (int bucket = 0; bucket < UserIds.BUCKETS; bucket++) {
+      if (shards[bucket] < 0) {
+        shards[bucket] = strategy.shardForBucket(bucket);
+        missing.add(new Object[] {bucket, shards[bucket]});
+      }
+    }
+    if (!missing.isEmpty()) {
+      directory.batchUpdate(
+          "INSERT IGNORE INTO shard_bucket_assignments (bucket, shard, frozen)"
+              + " VALUES (?, ?, FALSE)",
+          missing);
+      log.info("Seeded {} shard bucket assignments from {}",
+          missing.size(), strategy.getClass().getSimpleName());
+    }
+    return new Assignments(shards, frozen);
+  }
+
+  private record Assignments(int[] shards, boolean[] frozen) {
+  }
+}
@@ -0,0 +1,11 @@
+package org.example.liveplatform.sharding;
+
+/**
+ * Maps a bucket to its default physical shard. Buckets that were moved by the resharding tool are
+ * overridden by {@link ShardRouter} before the strategy is consulted. Declare a bean of this type
+ * to replace the default {@link ModuloShardRoutingStrategy}.
+ */
+public interface ShardRoutingStrategy {
+
+  int shardForBucket(int bucket);
+}
@@ -0,0 +1,49 @@
+package org.example.liveplatform.sharding;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.example.liveplatform.jdbc.QueryScope;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs work in a transaction on one shard. The shard has to be chosen before the transaction starts
+ * because the routing data source only picks a connection when one is first acquired.
+ */
+public class ShardTemplate {
+
+  private final TransactionTemplate readWrite;
+  private final TransactionTemplate readOnly;
+
+  public ShardTemplate(PlatformTransactionManager transactionManager) {
+    this.readWrite = new TransactionTemplate(transactionManager);
+    this.readOnly = new TransactionTemplate(transactionManager);
+    this.readOnly.setReadOnly(true);
+  }
+
+  public <T> T read(int shard, Supplier<T> work) {
+    return execute(shard, readOnly, work);
+  }
+
+  public <T> T write(int shard, Supplier<T> work) {
+    return execute(shard, readWrite, work);
+  }
+
+  /** Runs work on the shard with a caller-configured transaction, e.g. a different isolation. */
+  public <T> T execute(int shard, TransactionTemplate transaction, Supplier<T> work) {
+    Integer previous = ShardContext.current();
+    if (TransactionSynchronizationManager.isActualTransactionActive()
+        && !Objects.equals(previous, shard)) {
+      throw new IllegalStateException(
+          "Cannot switch to shard " + shard + " inside a transaction on shard " + previous);
+    }
+    ShardContext.set(shard);
+    try (QueryScope scope = QueryScope.open("transaction on shard " + shard)) {
+      return transaction.execute(status -> work.get());
+    } finally {
+      ShardContext.set(previous);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package org.example.liveplatform.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+  @Bean
+  public ShardDataSources shardDataSources(
+      ShardingProperties properties,
+      DataSourceProperties dataSourceProperties,
+      Environment environment) {
+    Binder binder = Binder.get(environment);
+    if (properties.shards() == null || properties.shards().isEmpty()) {
+      return new ShardDataSources(List.of(configurePool(binder, dataSourceProperties
+          .initializeDataSourceBuilder()
+          .type(HikariDataSource.class)
+          .build(), 0)));
+    }
+    List<DataSource> dataSources = new ArrayList<>();
+    for (ShardingProperties.Shard shard : properties.shards()) {
+      dataSources.add(configurePool(binder, DataSourceBuilder.create()
+          .type(HikariDataSource.class)
+          .driverClassName(dataSourceProperties.determineDriverClassName())
+          .url(shard.url())
+          .username(shard.username())
+          .password(shard.password())
+          .build(), dataSources.size()));
+    }
+    return new ShardDataSources(dataSources);
+  }
+
+  /**
+   * Applies {@code spring.datasource.hikari.*} to a shard's pool, as Boot does for the single pool
+   * it would otherwise create, and names the pool after the shard.
+   */
+  private static HikariDataSource configurePool(Binder binder, HikariDataSource pool, int shard) {
+    binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+    String name = pool.getPoolName() != null ? pool.getPoolName() : "HikariPool";
+    pool.setPoolName(name + "-shard-" + shard);
+    return pool;
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ShardDataSources shardDataSources) {
+    Map<Object, Object> targets = new HashMap<>();
+    for (int shard = 0; shard < shardDataSources.size(); shard++) {
+      targets.put(shard, shardDataSources.get(shard));
+    }
+    ShardRoutingDataSource routing = new ShardRoutingDataSource();
+    routing.setTargetDataSources(targets);
+    routing.setDefaultTargetDataSource(shardDataSources.get(ShardRouter.DIRECTORY_SHARD));
+    routing.setLenientFallback(false);
+    return routing;
+  }
+
+  /** Applies the same Flyway migrations to every shard instead of only the routing data source. */
+  @Bean
+  public FlywayMigrationStrategy flywayMigrationStrategy(ShardDataSources shardDataSources) {
+    return flyway -> {
+      for (DataSource shard : shardDataSources.all()) {
+        Flyway.configure()
+            .configuration(flyway.getConfiguration())
+            .dataSource(shard)
+            .load()
+            .migrate();
+      }
+    };
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  public ShardRoutingStrategy shardRoutingStrategy(ShardDataSources shardDataSources) {
+    return new ModuloShardRoutingStrategy(shardDataSources.size());
+  }
+
+  @Bean
+  public ShardRouter shardRouter(
+      ShardRoutingStrategy shardRoutingStrategy, ShardDataSources shardDataSources) {
+    return new ShardRouter(
+        shardRoutingStrategy, shardDataSources.get(ShardRouter.DIRECTORY_SHARD));
+  }
+
+  @Bean
+  public ShardTemplate shardTemplate(PlatformTransactionManager transactionManager) {
+    return new ShardTemplate(transactionManager);
+  }
+
+  @Bean
+  public UserIdAllocator userIdAllocator(ShardingProperties properties) {
+    return new UserIdAllocator(properties.nodeId());
+  }
+
+  @Bean
+  public UserDirectory userDirectory(ShardTemplate shardTemplate, JdbcTemplate jdbcTemplate) {
+    return new UserDirectory(shardTemplate, jdbcTemplate);
+  }
+
+  @Bean
+  public BucketFence bucketFence(JdbcTemplate jdbcTemplate) {
+    return new BucketFence(jdbcTemplate);
+  }
+
+  @Bean
+  public Resharder resharder(
+      ShardDataSources shardDataSources, ShardRouter shardRouter, ShardingProperties properties) {
+    return new Resharder(shardDataSources, shardRouter, properties.assignmentRefreshMs());
+  }
+
+  @Bean
+  @ConditionalOnProperty("live-platform.sharding.reshard.target-shard")
+  public ReshardCommand reshardCommand(
+      Resharder resharder,
+      ConfigurableApplicationContext context,
+      @Value("${live-platform.sharding.reshard.buckets}") List<Integer> buckets,
+      @Value("${live-platform.sharding.reshard.target-shard}") int targetShard) {
+    return new ReshardCommand(resharder, context, buckets, targetShard);
+  }
+}
@@ -0,0 +1,22 @@
+package org.example.liveplatform.sharding;
+
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Physical shards of the users data. When no shards are listed the regular
+ * {@code spring.datasource.*} connection is the single shard 0, which is also the directory shard
+ * holding the email lookup index and the bucket assignments.
+ */
+@ConfigurationProperties("live-platform.sharding")
+public record ShardingProperties(
+    List<Shard> shards,
+    @DefaultValue("0") int nodeId,
+    @DefaultValue("5000") long assignmentRefreshMs
+) {
+
+  public record Shard(String url, String username, String password) {
+  }
+}
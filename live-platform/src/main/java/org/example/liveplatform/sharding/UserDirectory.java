@@ -0,0 +1,40 @@
+package org.example.liveplatform.sharding;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Global email to user id index, kept on the directory shard so that an email lookup is one
+ * primary-key read instead of a query against every shard. The primary key on {@code email} also
+ * enforces email uniqueness across shards.
+ */
+public class UserDirectory {
+
+  private final ShardTemplate shardTemplate;
+  private final JdbcTemplate jdbcTemplate;
+
+  public UserDirectory(ShardTemplate shardTemplate, JdbcTemplate jdbcTemplate) {
+    this.shardTemplate = shardTemplate;
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public Optional<Long> findUserId(String email) {
+    List<Long> ids = shardTemplate.read(ShardRouter.DIRECTORY_SHARD,
+        () -> jdbcTemplate.queryForList(
+            "SELECT user_id FROM user_email_index WHERE email = ?", Long.class, email));
+    return ids.stream().findFirst();
+  }
+
+  /** Claims the email for the user; throws {@code DuplicateKeyException} if it is taken. */
+  public void register(String email, long userId) {
+    shardTemplate.write(ShardRouter.DIRECTORY_SHARD, () -> jdbcTemplate.update(
+        "INSERT INTO user_email_index (email, user_id) VALUES (?, ?)", email, userId));
+  }
+
+  public void release(String email, long userId) {
+    shardTemplate.write(ShardRouter.DIRECTORY_SHARD, () -> jdbcTemplate.update(
+        "DELETE FROM user_email_index WHERE email = ? AND user_id = ?", email, userId));
+  }
+}
@@ -0,0 +1,64 @@
+package org.example.liveplatform.sharding;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Allocates user ids without a database round trip. Every id carries a randomly chosen bucket, so
+ * new users spread evenly over the buckets and the shard of a user is known from the id alone.
+ */
+public class UserIdAllocator {
+
+  private static final long MAX_SEQUENCE = (1L << UserIds.SEQUENCE_BITS) - 1;
+
+  private final long node;
+  private final LongSupplier clock;
+  private long lastMillis = -1;
+  private long sequence;
+
+  public UserIdAllocator(int nodeId) {
+    this(nodeId, System::currentTimeMillis);
+  }
+
+  UserIdAllocator(int nodeId, LongSupplier clock) {
+    if (nodeId < 0 || nodeId >= (1 << UserIds.NODE_BITS)) {
+      throw new IllegalArgumentException("Node id must be between 0 and 15 but was " + nodeId);
+    }
+    this.node = nodeId;
+    this.clock = clock;
+  }
+
+  public long nextId() {
+    return nextId(ThreadLocalRandom.current().nextInt(UserIds.BUCKETS));
+  }
+
+  public synchronized long nextId(int bucket) {
+    long now = clock.getAsLong();
+    if (now < lastMillis) {
+      // Clock moved backwards; keep issuing ids from the last timestamp we handed out.
+      now = lastMillis;
+    }
+    if (now == lastMillis) {
+      sequence = (sequence + 1) & MAX_SEQUENCE;
+      if (sequence == 0) {
+        now = waitForNextMillis(lastMillis);
+      }
+    } else {
+      sequence = 0;
+    }
+    lastMillis = now;
+    return ((now - UserIds.EPOCH_MILLIS) << UserIds.TIMESTAMP_SHIFT)
+        | ((long) bucket << UserIds.BUCKET_SHIFT)
+        | (node << UserIds.SEQUENCE_BITS)
+        | sequence;
+  }
+
+  private long waitForNextMillis(long last) {
+    long now = clock.getAsLong();
+    while (now <= last) {
+      Thread.onSpinWait();
+      now = clock.getAsLong();
+    }
+    return now;
+  }
+}
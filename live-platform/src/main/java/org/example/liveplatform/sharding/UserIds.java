@@ -0,0 +1,40 @@
+package org.example.liveplatform.sharding;
+
+/**
+ * Layout of globally allocated user ids:
+ * {@code [41 bits millis since EPOCH][10 bits bucket][4 bits node][8 bits sequence]}.
+ *
+ * <p>Ids below {@link #FIRST_ALLOCATED_ID} predate sharding (AUTO_INCREMENT) and all belong to
+ * bucket 0, which is where the unsharded table lives.
+ */
+public final class UserIds {
+
+  public static final int BUCKETS = 1024;
+  public static final long EPOCH_MILLIS = 1_760_000_000_000L;
+  public static final long FIRST_ALLOCATED_ID = 1L << 22;
+
+  static final int SEQUENCE_BITS = 8;
+  static final int NODE_BITS = 4;
+  static final int BUCKET_SHIFT = SEQUENCE_BITS + NODE_BITS;
+  static final int TIMESTAMP_SHIFT = BUCKET_SHIFT + 10;
+
+  private UserIds() {
+  }
+
+  public static int bucketOf(long userId) {
+    if (userId < FIRST_ALLOCATED_ID) {
+      return 0;
+    }
+    return (int) ((userId >>> BUCKET_SHIFT) & (BUCKETS - 1));
+  }
+
+  /** SQL predicate matching the ids of one bucket, for bulk operations on the users table. */
+  public static String bucketPredicate(String idColumn, int bucket) {
+    String allocated = "((" + idColumn + " >> " + BUCKET_SHIFT + ") & " + (BUCKETS - 1) + ") = "
+        + bucket + " AND " + idColumn + " >= " + FIRST_ALLOCATED_ID;
+    if (bucket == 0) {
+      return "(" + idColumn + " < " + FIRST_ALLOCATED_ID + " OR (" + allocated + "))";
+    }
+    return "(" + allocated + ")";
+  }
+}
@@ -0,0 +1,8 @@
+CREATE TABLE user_email_index (
+    email VARCHAR(255) PRIMARY KEY,
+    user_id BIGINT NOT NULL
+);
+
+-- Users created before sharding all live on the directory shard; other shards start empty.
+INSERT INTO user_email_index (email, user_id)
+SELECT email, id FROM users;
@@ -0,0 +1,6 @@
+CREATE TABLE shard_bucket_assignments (
+    bucket INT PRIMARY KEY,
+    shard INT NOT NULL,
+    frozen BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP NOT NULL
+);
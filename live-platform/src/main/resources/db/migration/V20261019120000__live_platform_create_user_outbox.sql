@@ -0,0 +1,11 @@
+CREATE TABLE user_outbox (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) NOT NULL
+);
+
+-- Optimistic-lock version of each user, carried by change events so consumers can order them.
+ALTER TABLE users
+    ADD version BIGINT NOT NULL DEFAULT 0;
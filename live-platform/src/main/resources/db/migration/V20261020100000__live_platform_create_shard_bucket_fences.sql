@@ -0,0 +1,12 @@
+CREATE TABLE shard_bucket_fences (
+    bucket INT PRIMARY KEY,
+    frozen BOOLEAN NOT NULL DEFAULT FALSE
+);
+
+INSERT INTO shard_bucket_fences (bucket)
+WITH RECURSIVE digits (n) AS (
+    SELECT 0
+    UNION ALL
+    SELECT n + 1 FROM digits WHERE n < 31
+)
+SELECT high.n * 32 + low.n FROM digits high CROSS JOIN digits low;
@@ -0,0 +1,74 @@
+package org.example.liveplatform.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.TaskScheduler;
+
+class FirstMinuteLatencyRecorderTests {
+
+  private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+
+  @Test
+  void recordsOnlyRealApiRequestsAfterTheServiceIsReady() throws Exception {
+    FirstMinuteLatencyRecorder recorder = new FirstMinuteLatencyRecorder(taskScheduler, 60_000);
+
+    send(recorder, get("/api/users/1"));
+    assertEquals(0, recorder.recordedSamples());
+
+    ready(recorder, ReadinessState.REFUSING_TRAFFIC);
+    send(recorder, get("/api/users/1"));
+    assertEquals(0, recorder.recordedSamples());
+    verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+
+    ready(recorder, ReadinessState.ACCEPTING_TRAFFIC);
+    send(recorder, get("/api/users/1"));
+    send(recorder, get("/api/users/snapshot"));
+    MockHttpServletRequest warmup = get("/api/users/2");
+    warmup.addHeader(JitWarmup.WARMUP_HEADER, "true");
+    send(recorder, warmup);
+    send(recorder, get("/actuator/health/readiness"));
+    assertEquals(2, recorder.recordedSamples());
+
+    // Readiness flapping later does not restart the window
+    ready(recorder, ReadinessState.ACCEPTING_TRAFFIC);
+    ArgumentCaptor<Runnable> report = ArgumentCaptor.forClass(Runnable.class);
+    verify(taskScheduler, times(1)).schedule(report.capture(), any(Instant.class));
+    report.getValue().run();
+  }
+
+  @Test
+  void stopsRecordingWhenTheWindowEnds() throws Exception {
+    FirstMinuteLatencyRecorder recorder = new FirstMinuteLatencyRecorder(taskScheduler, 0);
+    ready(recorder, ReadinessState.ACCEPTING_TRAFFIC);
+
+    send(recorder, get("/api/users/1"));
+
+    assertEquals(0, recorder.recordedSamples());
+  }
+
+  private static void ready(FirstMinuteLatencyRecorder recorder, ReadinessState state) {
+    recorder.onReadinessChange(new AvailabilityChangeEvent<>(recorder, state));
+  }
+
+  private static void send(FirstMinuteLatencyRecorder recorder, MockHttpServletRequest request)
+      throws Exception {
+    recorder.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+  }
+
+  private static MockHttpServletRequest get(String uri) {
+    return new MockHttpServletRequest("GET", uri);
+  }
+}
@@ -0,0 +1,112 @@
+package org.example.liveplatform.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withBadRequest;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.example.liveplatform.dao.entity.UserStatus;
+import org.example.liveplatform.dto.UserChangeEvent;
+import org.example.liveplatform.dto.UserSnapshotPage;
+import org.example.liveplatform.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.server.ResponseStatusException;
+
+class JitWarmupTests {
+
+  private static final int ITERATIONS = 200;
+
+  private final UserService userService = mock(UserService.class);
+  private final AtomicLong nextId = new AtomicLong(1000);
+  private final Set<Long> created = ConcurrentHashMap.newKeySet();
+  private final Set<Long> updated = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger withoutWarmupHeader = new AtomicInteger();
+  private RestClient.Builder builder;
+
+  @BeforeEach
+  void setUp() {
+    when(userService.snapshotPage(null, 100)).thenReturn(new UserSnapshotPage(List.of(
+        new UserChangeEvent(7, UserChangeEvent.SNAPSHOT, "Ada", "Lovelace", "ada@example.org",
+            null, UserStatus.ACTIVE, null, null, 0)), null));
+    builder = RestClient.builder().baseUrl("http://localhost:8080");
+    MockRestServiceServer.bindTo(builder).build()
+        .expect(ExpectedCount.manyTimes(), request -> { })
+        .andRespond(this::respond);
+  }
+
+  @Test
+  void createsUpdatesAndDeletesThrowawayUsers() throws Exception {
+    new JitWarmup(userService, ITERATIONS, 10_000, 1).warmUp(builder);
+
+    assertEquals(ITERATIONS / JitWarmup.WRITE_EVERY, created.size());
+    assertEquals(created, updated);
+    ArgumentCaptor<Long> deleted = ArgumentCaptor.forClass(Long.class);
+    verify(userService, times(created.size())).deleteUser(deleted.capture());
+    assertEquals(created, Set.copyOf(deleted.getAllValues()));
+    assertEquals(0, withoutWarmupHeader.get());
+  }
+
+  @Test
+  void keepsDeletingWhenOneWarmupUserCannotBeDeleted() throws Exception {
+    doThrow(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE))
+        .when(userService).deleteUser(1001L);
+
+    new JitWarmup(userService, ITERATIONS, 10_000, 1).warmUp(builder);
+
+    verify(userService, times(created.size())).deleteUser(anyLong());
+    assertTrue(created.contains(1001L));
+  }
+
+  /** Stands in for the service's own endpoints. */
+  private ClientHttpResponse respond(ClientHttpRequest request) throws IOException {
+    if (!request.getHeaders().containsKey(JitWarmup.WARMUP_HEADER)) {
+      withoutWarmupHeader.incrementAndGet();
+    }
+    String path = request.getURI().getPath();
+    if (HttpMethod.POST.equals(request.getMethod())) {
+      if (((MockClientHttpRequest) request).getBodyAsString().contains("not-an-email")) {
+        return withBadRequest().createResponse(request);
+      }
+      long id = nextId.incrementAndGet();
+      created.add(id);
+      return withStatus(HttpStatus.CREATED)
+          .contentType(MediaType.APPLICATION_JSON)
+          .body("{\"id\":" + id + "}")
+          .createResponse(request);
+    }
+    if (HttpMethod.PUT.equals(request.getMethod())) {
+      long id = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+      updated.add(id);
+      return withSuccess("{\"id\":" + id + "}", MediaType.APPLICATION_JSON)
+          .createResponse(request);
+    }
+    if (path.equals("/api/users/7") || path.equals("/api/users/snapshot")) {
+      return withSuccess("{}", MediaType.APPLICATION_JSON).createResponse(request);
+    }
+    return withStatus(HttpStatus.NOT_FOUND).createResponse(request);
+  }
+}
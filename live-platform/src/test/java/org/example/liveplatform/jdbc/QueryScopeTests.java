@@ -0,0 +1,70 @@
+package org.example.liveplatform.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class QueryScopeTests {
+
+  private SimpleMeterRegistry registry;
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void setUp() {
+    JdbcDataSource h2 = new JdbcDataSource();
+    h2.setURL("jdbc:h2:mem:query-scope;DB_CLOSE_DELAY=-1");
+    registry = new SimpleMeterRegistry();
+    jdbcTemplate = new JdbcTemplate(
+        new InstrumentedDataSource(h2, new StatementMetrics(registry)));
+    jdbcTemplate.execute("DROP TABLE IF EXISTS items");
+    jdbcTemplate.execute("CREATE TABLE items (id BIGINT PRIMARY KEY, name VARCHAR(32))");
+    for (int i = 1; i <= 20; i++) {
+      jdbcTemplate.update("INSERT INTO items (id, name) VALUES (?, ?)", i, "item-" + i);
+    }
+  }
+
+  @Test
+  void fingerprintsIgnoreLiteralsAndInListLength() {
+    assertEquals(
+        "SELECT * FROM items WHERE id in (?) AND name = ?",
+        SqlFingerprint.of("SELECT * FROM items WHERE id IN (1, 2, 3) AND name = 'a'"));
+    assertEquals(
+        SqlFingerprint.of("SELECT * FROM items WHERE id IN (?, ?) AND name = ?"),
+        SqlFingerprint.of("SELECT *\n  FROM items WHERE id IN (7) AND name = 'b''c'"));
+  }
+
+  @Test
+  void countsStatementsAndRowsPerFingerprint() {
+    try (QueryScope scope = QueryScope.open("list")) {
+      jdbcTemplate.queryForList("SELECT id FROM items WHERE id <= ?", Long.class, 5);
+      jdbcTemplate.queryForList("SELECT id FROM items WHERE id <= ?", Long.class, 15);
+
+      assertEquals(2, scope.statementCount());
+      assertEquals(2, scope.count("SELECT id FROM items WHERE id <= ?"));
+    }
+    assertEquals(20.0, registry.get("jdbc.statement.rows")
+        .tag("statement", "SELECT id FROM items WHERE id <= ?")
+        .summary()
+        .totalAmount());
+  }
+
+  @Test
+  void detectsNPlusOneAndEnforcesBudget() {
+    try (QueryScope scope = QueryScope.open("n-plus-one", 5)) {
+      for (long id = 1; id <= 10; id++) {
+        jdbcTemplate.queryForObject("SELECT name FROM items WHERE id = ?", String.class, id);
+      }
+
+      assertTrue(scope.nPlusOneSuspects().contains("SELECT name FROM items WHERE id = ?"));
+      assertThrows(AssertionError.class, () -> scope.assertAtMost(3));
+      scope.assertAtMost(10);
+    }
+    assertEquals(1.0, registry.get("jdbc.n_plus_one.suspects").counter().count());
+  }
+}
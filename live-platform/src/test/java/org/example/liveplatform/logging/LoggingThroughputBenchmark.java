@@ -0,0 +1,170 @@
+package org.example.liveplatform.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import org.example.liveplatform.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
+
+/**
+ * Request-thread logging throughput of the default setup (synchronous appender, text pattern,
+ * flushed per event) against the prod profile (async appender in front of ECS JSON). Both write to
+ * a temp file rather than stdout so the JMH output stays readable. {@code async-ecs} matches prod
+ * and uses {@code neverBlock}, so callers never wait but events beyond what the writer keeps up
+ * with are dropped; each trial prints how many. {@code async-ecs-blocking} keeps every event and
+ * shows the throughput the writer really sustains. Run this class's {@code main} after
+ * {@code mvn test-compile}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoggingThroughputBenchmark {
+
+  private static final String BOOT_CONSOLE_PATTERN =
+      "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%15.15t] %-40.40logger{39} : %m%n";
+
+  @Param({"sync-pattern", "async-ecs", "async-ecs-blocking"})
+  String setup;
+
+  private final LongAdder logged = new LongAdder();
+  private LoggerContext context;
+  private Logger logger;
+  private Path file;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    file = Files.createTempFile("logging-benchmark", ".log");
+    context = new LoggerContext();
+    // StructuredLogEncoder looks the Spring Environment up in the logger context
+    context.putObject(Environment.class.getName(), new StandardEnvironment());
+    Appender<ILoggingEvent> appender = switch (setup) {
+      case "sync-pattern" -> fileAppender(patternEncoder());
+      case "async-ecs" -> async(fileAppender(ecsEncoder()), true);
+      case "async-ecs-blocking" -> async(fileAppender(ecsEncoder()), false);
+      default -> throw new IllegalArgumentException(setup);
+    };
+    logger = context.getLogger(UserService.class);
+    logger.setLevel(ch.qos.logback.classic.Level.INFO);
+    logger.setAdditive(false);
+    logger.addAppender(appender);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    // Stopping waits for the async queue to drain, so only events dropped on enqueue are missing
+    context.stop();
+    long written;
+    try (Stream<String> lines = Files.lines(file)) {
+      written = lines.count();
+    }
+    long total = logged.sum();
+    System.out.printf("%n%s: %d of %d events written, %d dropped%n",
+        setup, written, total, total - written);
+    Files.deleteIfExists(file);
+  }
+
+  @State(Scope.Thread)
+  public static class Request {
+
+    long userId = Thread.currentThread().threadId() * 1_000_000;
+  }
+
+  @Benchmark
+  public void info(Request request) {
+    long userId = request.userId++;
+    logged.increment();
+    logger.info("Updated user {} on shard {} in bucket {}", userId, userId % 2, userId % 1024);
+  }
+
+  @Benchmark
+  public void debugDisabled(Request request) {
+    long userId = request.userId++;
+    logger.debug("Updated user {} on shard {} in bucket {}", userId, userId % 2, userId % 1024);
+  }
+
+  private Encoder<ILoggingEvent> patternEncoder() {
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(context);
+    encoder.setPattern(BOOT_CONSOLE_PATTERN);
+    encoder.setCharset(StandardCharsets.UTF_8);
+    encoder.start();
+    return encoder;
+  }
+
+  private Encoder<ILoggingEvent> ecsEncoder() {
+    StructuredLogEncoder encoder = new StructuredLogEncoder();
+    encoder.setContext(context);
+    encoder.setFormat("ecs");
+    encoder.setCharset(StandardCharsets.UTF_8);
+    encoder.start();
+    return encoder;
+  }
+
+  private Appender<ILoggingEvent> fileAppender(Encoder<ILoggingEvent> encoder) throws IOException {
+    OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+    appender.setContext(context);
+    appender.setEncoder(encoder);
+    appender.setImmediateFlush(true);
+    appender.setOutputStream(new FileOutputStream(file.toFile()));
+    appender.start();
+    return appender;
+  }
+
+  private Appender<ILoggingEvent> async(Appender<ILoggingEvent> delegate, boolean neverBlock) {
+    AsyncAppender appender = new AsyncAppender();
+    appender.setContext(context);
+    appender.setQueueSize(8192);
+    appender.setNeverBlock(neverBlock);
+    if (!neverBlock) {
+      // The default threshold discards INFO once the queue is 80% full, even when blocking
+      appender.setDiscardingThreshold(0);
+    }
+    appender.setMaxFlushTime(0);
+    appender.setIncludeCallerData(false);
+    appender.addAppender(delegate);
+    appender.start();
+    return appender;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(LoggingThroughputBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
@@ -0,0 +1,141 @@
+package org.example.liveplatform.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.example.liveplatform.dao.UserOutboxDao;
+import org.example.liveplatform.dao.UserOutboxDao.OutboxRow;
+import org.example.liveplatform.sharding.ShardDataSources;
+import org.example.liveplatform.sharding.ShardTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class UserChangeRelayTests {
+
+  private static final String STREAM = "live-platform:user-changes";
+
+  private final UserOutboxDao outbox = mock(UserOutboxDao.class);
+  private final ShardTemplate shardTemplate = mock(ShardTemplate.class);
+  private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+  private final RedisConnection connection = mock(RedisConnection.class);
+  private final RedisStreamCommands streamCommands = mock(RedisStreamCommands.class);
+  private final List<Map<String, String>> published = new ArrayList<>();
+  private UserChangeRelay relay;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    when(shardTemplate.execute(anyInt(), any(TransactionTemplate.class), any(Supplier.class)))
+        .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
+    when(outbox.tryLockRelay()).thenReturn(true);
+    when(connection.streamCommands()).thenReturn(streamCommands);
+    when(streamCommands.xAdd(any(ByteRecord.class), any(XAddOptions.class)))
+        .thenAnswer(invocation -> {
+          ByteRecord record = invocation.getArgument(0);
+          assertEquals(STREAM, new String(record.getStream(), StandardCharsets.UTF_8));
+          Map<String, String> fields = new LinkedHashMap<>();
+          record.getValue().forEach((field, value) -> fields.put(
+              new String(field, StandardCharsets.UTF_8),
+              new String(value, StandardCharsets.UTF_8)));
+          published.add(fields);
+          return RecordId.autoGenerate();
+        });
+    when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+      ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection);
+      return List.of();
+    });
+    relay = new UserChangeRelay(
+        outbox,
+        shardTemplate,
+        new ShardDataSources(List.of(mock(DataSource.class))),
+        redisTemplate,
+        mock(PlatformTransactionManager.class),
+        STREAM,
+        1000,
+        2);
+  }
+
+  @Test
+  void publishesEachBatchBeforeDeletingIt() {
+    List<OutboxRow> first = List.of(
+        new OutboxRow(1, 10, "{\"userId\":10,\"version\":0}"),
+        new OutboxRow(2, 11, "{\"userId\":11,\"version\":0}"));
+    List<OutboxRow> second = List.of(new OutboxRow(3, 10, "{\"userId\":10,\"version\":1}"));
+    when(outbox.findBatch(2)).thenReturn(first, second);
+
+    relay.relay();
+
+    InOrder order = inOrder(streamCommands, outbox);
+    order.verify(streamCommands, times(2)).xAdd(any(ByteRecord.class), any(XAddOptions.class));
+    order.verify(outbox).delete(first);
+    order.verify(streamCommands).xAdd(any(ByteRecord.class), any(XAddOptions.class));
+    order.verify(outbox).delete(second);
+    assertEquals(List.of("10", "11", "10"), published.stream().map(f -> f.get("userId")).toList());
+    assertEquals(second.get(0).payload(), published.get(2).get("payload"));
+  }
+
+  @Test
+  void passesAnUnreadablePayloadThroughWithoutBlockingTheOutbox() {
+    // The relay does not parse payloads; consumers skip ones they cannot read
+    List<OutboxRow> rows = List.of(
+        new OutboxRow(1, 10, "not json"),
+        new OutboxRow(2, 11, "{\"userId\":11,\"version\":0}"));
+    when(outbox.findBatch(2)).thenReturn(rows, List.of());
+
+    relay.relay();
+
+    assertEquals(List.of("not json", "{\"userId\":11,\"version\":0}"),
+        published.stream().map(f -> f.get("payload")).toList());
+    verify(outbox).delete(rows);
+  }
+
+  @Test
+  void keepsTheBatchWhenRedisFails() {
+    List<OutboxRow> rows = List.of(new OutboxRow(1, 10, "{\"userId\":10,\"version\":0}"));
+    when(outbox.findBatch(2)).thenReturn(rows);
+    doThrow(new RedisConnectionFailureException("down"))
+        .when(redisTemplate).executePipelined(any(RedisCallback.class));
+
+    relay.relay();
+
+    verify(outbox, never()).delete(any());
+    verify(outbox).unlockRelay();
+  }
+
+  @Test
+  void leavesTheShardAloneWhileAnotherRelayHoldsItsLock() {
+    when(outbox.tryLockRelay()).thenReturn(false);
+
+    relay.relay();
+
+    verify(outbox, never()).findBatch(anyInt());
+    verify(outbox, never()).unlockRelay();
+    verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+  }
+}
@@ -0,0 +1,39 @@
+package org.example.liveplatform.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.mock.env.MockEnvironment;
+
+class ShardingConfigTests {
+
+  @Test
+  void appliesHikariSettingsToEveryShardPool() throws Exception {
+    MockEnvironment environment = new MockEnvironment()
+        .withProperty("spring.datasource.hikari.maximum-pool-size", "7")
+        .withProperty("spring.datasource.hikari.connection-timeout", "1500");
+    DataSourceProperties dataSourceProperties = new DataSourceProperties();
+    dataSourceProperties.setDriverClassName("com.mysql.cj.jdbc.Driver");
+    ShardingProperties properties = new ShardingProperties(List.of(
+        new ShardingProperties.Shard("jdbc:mysql://shard-0:3306/devex", "root", "secret"),
+        new ShardingProperties.Shard("jdbc:mysql://shard-1:3306/devex", "root", "secret")),
+        0, 5000);
+
+    ShardDataSources shards =
+        new ShardingConfig().shardDataSources(properties, dataSourceProperties, environment);
+    try {
+      for (int shard = 0; shard < shards.size(); shard++) {
+        HikariDataSource pool = (HikariDataSource) shards.get(shard);
+        assertEquals(7, pool.getMaximumPoolSize());
+        assertEquals(1500, pool.getConnectionTimeout());
+        assertEquals("HikariPool-shard-" + shard, pool.getPoolName());
+        assertEquals("jdbc:mysql://shard-" + shard + ":3306/devex", pool.getJdbcUrl());
+      }
+    } finally {
+      shards.destroy();
+    }
+  }
+}
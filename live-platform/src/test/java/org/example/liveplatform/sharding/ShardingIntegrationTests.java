@@ -0,0 +1,288 @@
+package org.example.liveplatform.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.example.liveplatform.dao.entity.User;
+import org.example.liveplatform.dto.UserRequest;
+import org.example.liveplatform.dto.UserSnapshotPage;
+import org.example.liveplatform.jdbc.QueryScope;
+import org.example.liveplatform.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/** Runs live-platform against two MySQL shards; skipped when Docker is not available. */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class ShardingIntegrationTests {
+
+  @Container
+  static final MySQLContainer<?> SHARD_0 = new MySQLContainer<>("mysql:8.0");
+
+  @Container
+  static final MySQLContainer<?> SHARD_1 = new MySQLContainer<>("mysql:8.0");
+
+  @Container
+  static final GenericContainer<?> REDIS = new GenericContainer<>("redis:7").withExposedPorts(6379);
+
+  @DynamicPropertySource
+  static void shards(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", SHARD_0::getJdbcUrl);
+    registry.add("spring.datasource.username", SHARD_0::getUsername);
+    registry.add("spring.datasource.password", SHARD_0::getPassword);
+    List<MySQLContainer<?>> shards = List.of(SHARD_0, SHARD_1);
+    for (int i = 0; i < shards.size(); i++) {
+      MySQLContainer<?> shard = shards.get(i);
+      registry.add("live-platform.sharding.shards[" + i + "].url", shard::getJdbcUrl);
+      registry.add("live-platform.sharding.shards[" + i + "].username", shard::getUsername);
+      registry.add("live-platform.sharding.shards[" + i + "].password", shard::getPassword);
+    }
+    registry.add("live-platform.sharding.assignment-refresh-ms", () -> "200");
+    registry.add("live-platform.warmup.enabled", () -> "false");
+    registry.add("spring.data.redis.host", REDIS::getHost);
+    registry.add("spring.data.redis.port", () -> REDIS.getMappedPort(6379));
+  }
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private ShardRouter shardRouter;
+
+  @Autowired
+  private ShardDataSources shardDataSources;
+
+  @Autowired
+  private ShardTemplate shardTemplate;
+
+  @Autowired
+  private Resharder resharder;
+
+  @Test
+  void seedsEveryBucketAssignmentOnTheDirectoryShard() {
+    shardRouter.shardForBucket(0);
+    JdbcTemplate directory = shard(ShardRouter.DIRECTORY_SHARD);
+    assertEquals(UserIds.BUCKETS, directory.queryForObject(
+        "SELECT COUNT(*) FROM shard_bucket_assignments", Integer.class));
+    assertEquals(List.of(0, 1), directory.queryForList(
+        "SELECT DISTINCT shard FROM shard_bucket_assignments ORDER BY shard", Integer.class));
+  }
+
+  @Test
+  void createsReadsAndUpdatesUsersOnTheirOwnShard() {
+    Set<Integer> usedShards = new HashSet<>();
+    for (int i = 0; i < 40; i++) {
+      User created = userService.createUser(request(uniqueEmail()));
+      int home = shardRouter.shardForUser(created.getId());
+      usedShards.add(home);
+      assertEquals(1, countUser(home, created.getId()));
+      assertEquals(0, countUser(1 - home, created.getId()));
+      assertEquals(created.getEmail(), userService.getUser(created.getId()).getEmail());
+    }
+    assertEquals(Set.of(0, 1), usedShards);
+
+    User user = userService.createUser(request(uniqueEmail()));
+    String oldEmail = user.getEmail();
+    String newEmail = uniqueEmail();
+    userService.updateUser(user.getId(), request(newEmail));
+    assertEquals(newEmail, userService.getUser(user.getId()).getEmail());
+    assertEquals(user.getId(), userService.findByEmail(newEmail).orElseThrow().getId());
+    assertTrue(userService.findByEmail(oldEmail).isEmpty());
+  }
+
+  @Test
+  void keepsEmailsUniqueAcrossShardsAndReleasesFailedClaims() {
+    String email = uniqueEmail();
+    User owner = userService.createUser(request(email));
+    ResponseStatusException duplicate =
+        assertThrows(ResponseStatusException.class, () -> userService.createUser(request(email)));
+    assertEquals(HttpStatus.CONFLICT, duplicate.getStatusCode());
+
+    // A write rejected on the shard must give back the email it claimed in the directory
+    int bucket = UserIds.bucketOf(owner.getId());
+    JdbcTemplate home = shard(shardRouter.shardForUser(owner.getId()));
+    String wanted = uniqueEmail();
+    BucketFence.set(home, bucket, true);
+    try {
+      ResponseStatusException fenced = assertThrows(ResponseStatusException.class,
+          () -> userService.updateUser(owner.getId(), request(wanted)));
+      assertEquals(HttpStatus.SERVICE_UNAVAILABLE, fenced.getStatusCode());
+    } finally {
+      BucketFence.set(home, bucket, false);
+    }
+    assertTrue(userService.findByEmail(wanted).isEmpty());
+    assertEquals(email, userService.getUser(owner.getId()).getEmail());
+    userService.createUser(request(wanted));
+  }
+
+  @Test
+  void writesOutboxRowsInTheSameTransactionAsTheUser() throws Exception {
+    // While the test holds every shard's relay lock the relay leaves the outbox rows alone
+    List<Connection> relayLocks = lockRelays();
+    try {
+      User user = userService.createUser(request(uniqueEmail()));
+      int home = shardRouter.shardForUser(user.getId());
+      assertEquals(List.of("CREATED"), outboxTypes(home, user.getId()));
+
+      // Roll back an update after it wrote its outbox row: neither the row nor the change stays
+      UserRequest renamed = new UserRequest("Grace", "Hopper", user.getEmail(), null, null);
+      assertThrows(IllegalStateException.class, () -> shardTemplate.write(home, () -> {
+        userService.updateUser(user.getId(), renamed);
+        throw new IllegalStateException("roll back");
+      }));
+      assertEquals(List.of("CREATED"), outboxTypes(home, user.getId()));
+      assertEquals("Ada", userService.getUser(user.getId()).getFirstName());
+
+      userService.updateUser(user.getId(), renamed);
+      assertEquals(List.of("CREATED", "UPDATED"), outboxTypes(home, user.getId()));
+      assertTrue(shard(home).queryForObject(
+          "SELECT payload FROM user_outbox WHERE user_id = ? ORDER BY id DESC LIMIT 1",
+          String.class, user.getId()).contains("\"version\":1"));
+
+      userService.deleteUser(user.getId());
+      assertEquals(List.of("CREATED", "UPDATED", "DELETED"), outboxTypes(home, user.getId()));
+      assertEquals(0, countUser(home, user.getId()));
+      assertTrue(userService.findByEmail(user.getEmail()).isEmpty());
+    } finally {
+      unlockRelays(relayLocks);
+    }
+  }
+
+  @Test
+  void keepsUserCallsWithinTheirStatementBudgets() {
+    for (int i = 0; i < 5; i++) {
+      userService.createUser(request(uniqueEmail()));
+    }
+    User user;
+    // Email claim, fence check, user insert, outbox insert
+    try (QueryScope scope = QueryScope.open("createUser")) {
+      user = userService.createUser(request(uniqueEmail()));
+      scope.assertAtMost(4);
+    }
+    try (QueryScope scope = QueryScope.open("getUser")) {
+      userService.getUser(user.getId());
+      scope.assertAtMost(1);
+    }
+    // Current email, new email claim, fence check, user select, update, outbox insert and the
+    // release of the old email
+    try (QueryScope scope = QueryScope.open("updateUser")) {
+      userService.updateUser(user.getId(), request(uniqueEmail()));
+      scope.assertAtMost(7);
+    }
+    // One query per page however many users it holds
+    String cursor = shardRouter.shardForUser(user.getId()) + ":0";
+    try (QueryScope scope = QueryScope.open("snapshotPage")) {
+      UserSnapshotPage page = userService.snapshotPage(cursor, 100);
+      assertFalse(page.users().isEmpty());
+      scope.assertAtMost(1);
+    }
+  }
+
+  @Test
+  void refusesToSwitchShardInsideATransaction() {
+    assertThrows(IllegalStateException.class,
+        () -> shardTemplate.write(0, () -> shardTemplate.read(1, () -> null)));
+  }
+
+  @Test
+  void movesABucketToAnotherShardAndBack() {
+    User user = userService.createUser(request(uniqueEmail()));
+    int bucket = UserIds.bucketOf(user.getId());
+    int source = shardRouter.shardForBucket(bucket);
+    int target = 1 - source;
+
+    resharder.moveBucket(bucket, target);
+    shardRouter.refresh();
+    assertEquals(target, shardRouter.shardForUser(user.getId()));
+    assertEquals(0, countUser(source, user.getId()));
+    assertEquals(0, shard(source).queryForObject(
+        "SELECT COUNT(*) FROM user_outbox WHERE user_id = ?", Integer.class, user.getId()));
+    assertEquals(user.getEmail(), userService.getUser(user.getId()).getEmail());
+
+    String movedEmail = uniqueEmail();
+    userService.updateUser(user.getId(), request(movedEmail));
+    assertEquals(movedEmail, userService.getUser(user.getId()).getEmail());
+
+    resharder.moveBucket(bucket, source);
+    shardRouter.refresh();
+    assertEquals(source, shardRouter.shardForUser(user.getId()));
+    assertEquals(movedEmail, userService.getUser(user.getId()).getEmail());
+    String movedBackEmail = uniqueEmail();
+    userService.updateUser(user.getId(), request(movedBackEmail));
+    assertEquals(movedBackEmail, userService.getUser(user.getId()).getEmail());
+    assertFalse(userService.findByEmail(movedEmail).isPresent());
+  }
+
+  @Test
+  void rejectsUnknownBuckets() {
+    assertThrows(IllegalArgumentException.class, () -> resharder.moveBucket(UserIds.BUCKETS, 1));
+    assertThrows(IllegalArgumentException.class, () -> resharder.moveBucket(-1, 1));
+  }
+
+  private JdbcTemplate shard(int shard) {
+    return new JdbcTemplate(shardDataSources.get(shard));
+  }
+
+  private List<String> outboxTypes(int shard, long userId) {
+    return shard(shard).queryForList(
+        "SELECT event_type FROM user_outbox WHERE user_id = ? ORDER BY id", String.class, userId);
+  }
+
+  private List<Connection> lockRelays() throws SQLException {
+    List<Connection> locks = new ArrayList<>();
+    for (int shard = 0; shard < shardDataSources.size(); shard++) {
+      Connection connection = shardDataSources.get(shard).getConnection();
+      locks.add(connection);
+      assertEquals(1, session(connection).queryForObject(
+          "SELECT GET_LOCK('user_outbox_relay', 10)", Integer.class));
+    }
+    return locks;
+  }
+
+  private static void unlockRelays(List<Connection> locks) throws SQLException {
+    for (Connection connection : locks) {
+      // Named locks belong to the session, so release them before the pool reuses it
+      try (connection) {
+        session(connection)
+            .queryForObject("SELECT RELEASE_LOCK('user_outbox_relay')", Integer.class);
+      }
+    }
+  }
+
+  private static JdbcTemplate session(Connection connection) {
+    return new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+  }
+
+  private int countUser(int shard, long id) {
+    return shard(shard)
+        .queryForObject("SELECT COUNT(*) FROM users WHERE id = ?", Integer.class, id);
+  }
+
+  private static String uniqueEmail() {
+    return UUID.randomUUID() + "@example.org";
+  }
+
+  private static UserRequest request(String email) {
+    return new UserRequest("Ada", "Lovelace", email, null, null);
+  }
+}
@@ -0,0 +1,43 @@
+package org.example.liveplatform.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class UserIdAllocatorTests {
+
+  @Test
+  void idsCarryTheirBucket() {
+    UserIdAllocator allocator = new UserIdAllocator(3);
+    for (int bucket = 0; bucket < UserIds.BUCKETS; bucket++) {
+      long id = allocator.nextId(bucket);
+      assertTrue(id >= UserIds.FIRST_ALLOCATED_ID);
+      assertEquals(bucket, UserIds.bucketOf(id));
+    }
+  }
+
+  @Test
+  void legacyIdsBelongToBucketZero() {
+    assertEquals(0, UserIds.bucketOf(1));
+    assertEquals(0, UserIds.bucketOf(5000));
+    assertEquals(0, UserIds.bucketOf(UserIds.FIRST_ALLOCATED_ID - 1));
+  }
+
+  @Test
+  void idsStayUniqueWhenTheSequenceWrapsOrTheClockGoesBack() {
+    AtomicLong calls = new AtomicLong();
+    UserIdAllocator allocator = new UserIdAllocator(0, () -> {
+      long call = calls.getAndIncrement();
+      long now = UserIds.EPOCH_MILLIS + 1_000 + call / 300;
+      return call >= 3_000 && call < 4_000 ? now - 10 : now;
+    });
+    Set<Long> ids = new HashSet<>();
+    for (int i = 0; i < 10_000; i++) {
+      assertTrue(ids.add(allocator.nextId(7)));
+    }
+  }
+}
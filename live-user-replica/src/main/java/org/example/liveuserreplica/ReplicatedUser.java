@@ -0,0 +1,26 @@
+package org.example.liveuserreplica;
+
+import java.time.LocalDate;
+
+/** The fields of a user kept in the replica; timestamps are reduced to the version. */
+public record ReplicatedUser(
+    long id,
+    String firstName,
+    String lastName,
+    String email,
+    LocalDate dateOfBirth,
+    String status,
+    long version
+) {
+
+  static ReplicatedUser fromEvent(UserChangeEvent event) {
+    return new ReplicatedUser(
+        event.userId(),
+        event.firstName(),
+        event.lastName(),
+        event.email(),
+        event.dateOfBirth(),
+        event.status() == null ? null : event.status().intern(),
+        event.version());
+  }
+}
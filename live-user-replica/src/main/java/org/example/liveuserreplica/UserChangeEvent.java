@@ -0,0 +1,19 @@
+package org.example.liveuserreplica;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+/** Mirror of the event live-platform writes to its user change stream. */
+public record UserChangeEvent(
+    long userId,
+    String type,
+    String firstName,
+    String lastName,
+    String email,
+    LocalDate dateOfBirth,
+    String status,
+    OffsetDateTime createdAt,
+    OffsetDateTime updatedAt,
+    long version
+) {
+}
@@ -0,0 +1,42 @@
+package org.example.liveuserreplica;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory copy of live-platform users. Events are applied last-writer-wins by version, so
+ * duplicates from the at-least-once stream and overlap with the bootstrap snapshot are harmless.
+ * A delete is the last change of a user on the stream, so it simply removes the user.
+ */
+public class UserReplica {
+
+  private final ConcurrentMap<Long, ReplicatedUser> users;
+
+  public UserReplica() {
+    this(1024);
+  }
+
+  public UserReplica(int expectedUsers) {
+    this.users = new ConcurrentHashMap<>(expectedUsers);
+  }
+
+  public Optional<ReplicatedUser> get(long userId) {
+    return Optional.ofNullable(users.get(userId));
+  }
+
+  public int size() {
+    return users.size();
+  }
+
+  public void apply(UserChangeEvent event) {
+    if ("DELETED".equals(event.type())) {
+      users.computeIfPresent(event.userId(),
+          (id, current) -> event.version() >= current.version() ? null : current);
+      return;
+    }
+    ReplicatedUser incoming = ReplicatedUser.fromEvent(event);
+    users.merge(event.userId(), incoming,
+        (current, candidate) -> candidate.version() >= current.version() ? candidate : current);
+  }
+}
@@ -0,0 +1,197 @@
+package org.example.liveuserreplica;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Keeps a {@link UserReplica} in sync with live-platform.
+ *
+ * <p>{@link #start()} remembers the current end of the change stream, loads the full snapshot from
+ * {@code GET /api/users/snapshot}, and then follows the stream from the remembered position on a
+ * background thread. Changes made while the snapshot was loading are therefore replayed, never
+ * lost. If the consumer falls so far behind that the stream's max length trims changes it has not
+ * read yet, the follower notices before its next read and bootstraps again the same way.
+ */
+public class UserReplicaSync implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(UserReplicaSync.class);
+
+  private static final int SNAPSHOT_PAGE_SIZE = 1000;
+  private static final int READ_COUNT = 500;
+  private static final Duration READ_BLOCK = Duration.ofSeconds(2);
+
+  private final UserReplica replica;
+  private final StringRedisTemplate redisTemplate;
+  private final RestClient platformClient;
+  private final String streamKey;
+  private final ObjectMapper objectMapper = JsonMapper.builder()
+      .findAndAddModules()
+      .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+      .build();
+  private volatile boolean running;
+  private Thread follower;
+
+  /**
+   * @param platformClient client whose base URL points at live-platform
+   * @param streamKey the value of {@code live-platform.user-changes.stream-key}
+   */
+  public UserReplicaSync(
+      UserReplica replica,
+      StringRedisTemplate redisTemplate,
+      RestClient platformClient,
+      String streamKey) {
+    this.replica = replica;
+    this.redisTemplate = redisTemplate;
+    this.platformClient = platformClient;
+    this.streamKey = streamKey;
+  }
+
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    String position = streamEnd();
+    int loaded = loadSnapshot();
+    log.info("Loaded {} users from the live-platform snapshot; following {} from {}",
+        loaded, streamKey, position);
+    running = true;
+    follower = Thread.ofPlatform()
+        .name("user-replica-sync")
+        .daemon()
+        .start(() -> follow(position));
+  }
+
+  @Override
+  public synchronized void close() {
+    running = false;
+    if (follower != null) {
+      follower.interrupt();
+      follower = null;
+    }
+  }
+
+  private String streamEnd() {
+    List<MapRecord<String, Object, Object>> last = redisTemplate.opsForStream()
+        .reverseRange(streamKey, Range.unbounded(), Limit.limit().count(1));
+    return last == null || last.isEmpty() ? "0-0" : last.get(0).getId().getValue();
+  }
+
+  private int loadSnapshot() {
+    int loaded = 0;
+    String cursor = "";
+    do {
+      String body = platformClient.get()
+          .uri("/api/users/snapshot?cursor={cursor}&limit={limit}", cursor, SNAPSHOT_PAGE_SIZE)
+          .retrieve()
+          .body(String.class);
+      SnapshotPage page = read(body, SnapshotPage.class);
+      page.users().forEach(replica::apply);
+      loaded += page.users().size();
+      cursor = page.nextCursor();
+    } while (cursor != null);
+    return loaded;
+  }
+
+  private void follow(String from) {
+    String position = from;
+    StreamReadOptions options = StreamReadOptions.empty().count(READ_COUNT).block(READ_BLOCK);
+    while (running) {
+      try {
+        if (trimmedPast(position)) {
+          log.warn("{} was trimmed past {}; reloading the live-platform snapshot",
+              streamKey, position);
+          String end = streamEnd();
+          int loaded = loadSnapshot();
+          log.info("Reloaded {} users; following {} from {}", loaded, streamKey, end);
+          position = end;
+        }
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+            .read(options, StreamOffset.create(streamKey, ReadOffset.from(position)));
+        if (records == null) {
+          continue;
+        }
+        for (MapRecord<String, Object, Object> record : records) {
+          apply(record);
+          position = record.getId().getValue();
+        }
+      } catch (RuntimeException e) {
+        if (!running) {
+          return;
+        }
+        log.warn("Failed to read user changes from {} at {}; retrying", streamKey, position, e);
+        try {
+          Thread.sleep(READ_BLOCK.toMillis());
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Whether MAXLEN may have trimmed changes after {@code position}, i.e. the stream's first entry
+   * is newer than it. A trim that stopped right at the position also counts, which only costs an
+   * unneeded reload. A follower at {@code 0-0} started on an empty stream and reads it from the
+   * first entry, so it is not checked.
+   */
+  private boolean trimmedPast(String position) {
+    if (position.equals("0-0")) {
+      return false;
+    }
+    List<MapRecord<String, Object, Object>> first = redisTemplate.opsForStream()
+        .range(streamKey, Range.unbounded(), Limit.limit().count(1));
+    return first != null && !first.isEmpty() && isAfter(first.get(0).getId(), position);
+  }
+
+  private static boolean isAfter(RecordId id, String position) {
+    RecordId other = RecordId.of(position);
+    int byTime = Long.compare(id.getTimestamp(), other.getTimestamp());
+    return byTime != 0 ? byTime > 0 : id.getSequence() > other.getSequence();
+  }
+
+  /**
+   * Applies one stream record. A payload that cannot be read is logged and skipped: retrying it
+   * would never succeed and would stop the replica at that record forever.
+   */
+  void apply(MapRecord<String, Object, Object> record) {
+    Object payload = record.getValue().get("payload");
+    if (payload == null) {
+      return;
+    }
+    UserChangeEvent event;
+    try {
+      event = read(payload.toString(), UserChangeEvent.class);
+    } catch (IllegalStateException e) {
+      log.error("Skipping unreadable user change {} in {}", record.getId(), streamKey, e);
+      return;
+    }
+    replica.apply(event);
+  }
+
+  private <T> T read(String json, Class<T> type) {
+    try {
+      return objectMapper.readValue(json, type);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Cannot read " + type.getSimpleName() + " from " + json, e);
+    }
+  }
+
+  record SnapshotPage(List<UserChangeEvent> users, String nextCursor) {
+  }
+}
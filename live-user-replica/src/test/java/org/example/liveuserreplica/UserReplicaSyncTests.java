@@ -0,0 +1,167 @@
+package org.example.liveuserreplica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.queryParam;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+class UserReplicaSyncTests {
+
+  private static final String STREAM = "live-platform:user-changes";
+
+  private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+  private final UserReplica replica = new UserReplica();
+  private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+  @SuppressWarnings("unchecked")
+  private final StreamOperations<String, Object, Object> streams = mock(StreamOperations.class);
+  private final List<String> readOffsets = new CopyOnWriteArrayList<>();
+  private UserReplicaSync sync;
+
+  @AfterEach
+  void stop() {
+    if (sync != null) {
+      sync.close();
+    }
+  }
+
+  @Test
+  void followsTheStreamFromWhereItEndedBeforeTheSnapshot() throws Exception {
+    RestClient.Builder builder = RestClient.builder().baseUrl("http://live-platform");
+    MockRestServiceServer platform = MockRestServiceServer.bindTo(builder).build();
+    platform.expect(queryParam("cursor", ""))
+        .andRespond(withSuccess(page("0:2",
+            UserReplicaTests.event(1, "SNAPSHOT", "one-v3@example.org", 3),
+            UserReplicaTests.event(2, "SNAPSHOT", "two-v1@example.org", 1)),
+            MediaType.APPLICATION_JSON));
+    platform.expect(queryParam("cursor", "0:2"))
+        .andRespond(withSuccess(page(null,
+            UserReplicaTests.event(3, "SNAPSHOT", "three-v0@example.org", 0)),
+            MediaType.APPLICATION_JSON));
+
+    when(redisTemplate.opsForStream()).thenReturn(streams);
+    when(streams.reverseRange(eq(STREAM), any(Range.class), any(Limit.class)))
+        .thenReturn(List.of(record("5-0", "{}")));
+    // Written while the snapshot loaded: an older version of user 1, a newer one of user 2,
+    // a payload this replica cannot read, and a brand new user.
+    List<MapRecord<String, Object, Object>> backlog = List.of(
+        record("6-0", json(UserReplicaTests.event(1, "UPDATED", "one-v2@example.org", 2))),
+        record("7-0", json(UserReplicaTests.event(2, "UPDATED", "two-v2@example.org", 2))),
+        record("8-0", "not json"),
+        record("9-0", json(UserReplicaTests.event(4, "CREATED", "four-v0@example.org", 0))));
+    CountDownLatch caughtUp = new CountDownLatch(1);
+    when(streams.read(any(StreamReadOptions.class), any(StreamOffset.class)))
+        .thenAnswer(invocation -> {
+          StreamOffset<String> offset = invocation.getArgument(1);
+          String position = offset.getOffset().getOffset();
+          readOffsets.add(position);
+          if (position.equals("5-0")) {
+            return backlog;
+          }
+          caughtUp.countDown();
+          try {
+            Thread.sleep(10);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return List.of();
+        });
+
+    sync = new UserReplicaSync(replica, redisTemplate, builder.build(), STREAM);
+    sync.start();
+
+    assertTrue(caughtUp.await(5, TimeUnit.SECONDS));
+    platform.verify();
+    assertEquals("5-0", readOffsets.get(0));
+    assertEquals("9-0", readOffsets.get(1));
+    assertEquals(4, replica.size());
+    assertEquals("one-v3@example.org", replica.get(1).orElseThrow().email());
+    assertEquals("two-v2@example.org", replica.get(2).orElseThrow().email());
+    assertEquals("three-v0@example.org", replica.get(3).orElseThrow().email());
+    assertEquals("four-v0@example.org", replica.get(4).orElseThrow().email());
+  }
+
+  @Test
+  void reloadsTheSnapshotWhenTheStreamWasTrimmedPastItsPosition() throws Exception {
+    RestClient.Builder builder = RestClient.builder().baseUrl("http://live-platform");
+    MockRestServiceServer platform = MockRestServiceServer.bindTo(builder).build();
+    platform.expect(queryParam("cursor", ""))
+        .andRespond(withSuccess(page(null,
+            UserReplicaTests.event(1, "SNAPSHOT", "one-v1@example.org", 1)),
+            MediaType.APPLICATION_JSON));
+    platform.expect(queryParam("cursor", ""))
+        .andRespond(withSuccess(page(null,
+            UserReplicaTests.event(1, "SNAPSHOT", "one-v7@example.org", 7)),
+            MediaType.APPLICATION_JSON));
+
+    when(redisTemplate.opsForStream()).thenReturn(streams);
+    // The stream ended at 5-0 before the first snapshot and at 12-0 before the reload, but by
+    // the time the follower starts MAXLEN has trimmed everything before 8-0.
+    when(streams.reverseRange(eq(STREAM), any(Range.class), any(Limit.class)))
+        .thenReturn(List.of(record("5-0", "{}")), List.of(record("12-0", "{}")));
+    when(streams.range(eq(STREAM), any(Range.class), any(Limit.class)))
+        .thenReturn(List.of(record("8-0", "{}")));
+    CountDownLatch caughtUp = new CountDownLatch(1);
+    when(streams.read(any(StreamReadOptions.class), any(StreamOffset.class)))
+        .thenAnswer(invocation -> {
+          StreamOffset<String> offset = invocation.getArgument(1);
+          readOffsets.add(offset.getOffset().getOffset());
+          caughtUp.countDown();
+          try {
+            Thread.sleep(10);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return List.of();
+        });
+
+    sync = new UserReplicaSync(replica, redisTemplate, builder.build(), STREAM);
+    sync.start();
+
+    assertTrue(caughtUp.await(5, TimeUnit.SECONDS));
+    platform.verify();
+    assertEquals("12-0", readOffsets.get(0));
+    assertEquals("one-v7@example.org", replica.get(1).orElseThrow().email());
+  }
+
+  private String page(String nextCursor, UserChangeEvent... users) throws Exception {
+    return objectMapper.writeValueAsString(
+        new UserReplicaSync.SnapshotPage(List.of(users), nextCursor));
+  }
+
+  private String json(UserChangeEvent event) throws Exception {
+    return objectMapper.writeValueAsString(event);
+  }
+
+  private static MapRecord<String, Object, Object> record(String id, String payload) {
+    return StreamRecords.newRecord()
+        .in(STREAM)
+        .withId(RecordId.of(id))
+        .ofMap(Map.<Object, Object>of("payload", payload));
+  }
+}
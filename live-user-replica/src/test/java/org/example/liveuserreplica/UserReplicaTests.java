@@ -0,0 +1,72 @@
+package org.example.liveuserreplica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class UserReplicaTests {
+
+  private final UserReplica replica = new UserReplica();
+
+  @Test
+  void keepsTheHighestVersion() {
+    replica.apply(event(1, "UPDATED", "first@example.org", 1));
+    replica.apply(event(1, "UPDATED", "third@example.org", 3));
+    replica.apply(event(1, "UPDATED", "second@example.org", 2));
+
+    assertEquals("third@example.org", replica.get(1).orElseThrow().email());
+    assertEquals(3, replica.get(1).orElseThrow().version());
+    assertEquals(1, replica.size());
+  }
+
+  @Test
+  void ignoresDuplicateDeliveries() {
+    UserChangeEvent created = event(1, "CREATED", "ada@example.org", 0);
+    replica.apply(created);
+    replica.apply(created);
+    replica.apply(created);
+
+    assertEquals(1, replica.size());
+    assertEquals("ada@example.org", replica.get(1).orElseThrow().email());
+  }
+
+  @Test
+  void streamChangesReplayedOverTheSnapshotDoNotRollItBack() {
+    // The snapshot already contains the update; the stream then replays the create and update
+    replica.apply(event(1, "SNAPSHOT", "new@example.org", 1));
+    replica.apply(event(1, "CREATED", "old@example.org", 0));
+    replica.apply(event(1, "UPDATED", "new@example.org", 1));
+    assertEquals("new@example.org", replica.get(1).orElseThrow().email());
+
+    replica.apply(event(1, "UPDATED", "newer@example.org", 2));
+    assertEquals("newer@example.org", replica.get(1).orElseThrow().email());
+  }
+
+  @Test
+  void removesDeletedUsers() {
+    replica.apply(event(1, "CREATED", "ada@example.org", 0));
+    replica.apply(event(1, "UPDATED", "ada@example.com", 1));
+    replica.apply(event(1, "DELETED", "ada@example.com", 1));
+    assertTrue(replica.get(1).isEmpty());
+
+    // A delete replayed after the snapshot no longer contained the user changes nothing
+    replica.apply(event(2, "DELETED", "two@example.org", 0));
+    assertEquals(0, replica.size());
+  }
+
+  @Test
+  void keepsUsersIndependent() {
+    replica.apply(event(1, "CREATED", "one@example.org", 5));
+    replica.apply(event(2, "CREATED", "two@example.org", 0));
+
+    assertEquals("two@example.org", replica.get(2).orElseThrow().email());
+    assertEquals("one@example.org", replica.get(1).orElseThrow().email());
+    assertTrue(replica.get(3).isEmpty());
+  }
+
+  static UserChangeEvent event(long userId, String type, String email, long version) {
+    return new UserChangeEvent(
+        userId, type, "Ada", "Lovelace", email, null, "ACTIVE", null, null, version);
+  }
+}